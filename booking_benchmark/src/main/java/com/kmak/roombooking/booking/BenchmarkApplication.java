@@ -0,0 +1,43 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.BookingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+final class BenchmarkApplication {
+
+    static final int ROOMS = 10;
+    static final LocalDateTime FIRST_DAY = LocalDateTime.of(2099, 11, 23, 0, 0);
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        String[] args = Stream.concat(Stream.of(
+                        "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN"),
+                Stream.of(properties).map(property -> "--" + property)).toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rooms = new ArrayList<>();
+        for (int room = 1; room <= ROOMS; room++) {
+            rooms.add(new Object[]{"Room " + room});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO rooms (room_name) VALUES (?)", rooms);
+        context.getBean(RoomRegistry.class).refresh();
+        return context;
+    }
+}
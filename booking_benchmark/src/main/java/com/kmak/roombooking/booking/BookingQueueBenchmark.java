@@ -0,0 +1,57 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.PendingBooking;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class BookingQueueBenchmark {
+
+    private static final int BATCH = 64;
+
+    private BookingQueue bookingQueue;
+    private PendingBooking booking;
+    private List<PendingBooking> bookings;
+    private List<Long> roomIds;
+    private List<PendingBooking> drained;
+    private int lane;
+
+    @Setup
+    public void setUp() {
+        bookingQueue = new BookingQueue(new SimpleMeterRegistry(), 4, 16384, 16, 100);
+        bookings = new ArrayList<>(BATCH);
+        for (long id = 1; id <= BATCH; id++) {
+            bookings.add(new PendingBooking(id, 1L, BenchmarkApplication.FIRST_DAY.withHour(9), BenchmarkApplication.FIRST_DAY.withHour(10)));
+        }
+        booking = bookings.getFirst();
+        roomIds = Collections.nCopies(BATCH, 1L);
+        drained = new ArrayList<>(BATCH);
+        lane = bookingQueue.laneOf(1L);
+    }
+
+    @Benchmark
+    public PendingBooking addThenConsume() throws InterruptedException {
+        bookingQueue.reserve(1L);
+        bookingQueue.add(booking);
+        return bookingQueue.consume(lane);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<PendingBooking> addAllThenDrain() throws InterruptedException {
+        drained.clear();
+        bookingQueue.reserveAll(roomIds);
+        bookingQueue.addAll(bookings);
+        bookingQueue.drain(lane, drained, BATCH, 0);
+        return drained;
+    }
+}
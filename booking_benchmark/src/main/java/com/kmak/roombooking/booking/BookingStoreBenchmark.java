@@ -0,0 +1,111 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.Room;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// stores a batch of pending bookings and settles them the way the settle path used to, through managed entities,
+// and the way it does now, through BookingStore
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class BookingStoreBenchmark {
+
+    @Param({"1", "64"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private BookingStore bookingStore;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final List<Room> rooms = new ArrayList<>();
+    private int week;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("store" + batchSize);
+        bookingRepository = context.getBean(BookingRepository.class);
+        bookingStore = context.getBean(BookingStore.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        RoomRegistry roomRegistry = context.getBean(RoomRegistry.class);
+        for (long room = 1; room <= BenchmarkApplication.ROOMS; room++) {
+            rooms.add(roomRegistry.find(room).orElseThrow());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearBookings() {
+        jdbcTemplate.update("DELETE FROM bookings");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void jpa() {
+        for (int i = 0; i < 64 / batchSize; i++) {
+            List<Booking> bookings = transactionTemplate.execute(status -> bookingRepository.saveAll(newBookings()));
+            List<Long> bookingIds = bookings.stream().map(Booking::getBookingId).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Booking booking : bookingRepository.findAllById(bookingIds)) {
+                    boolean conflict = bookingRepository.existsConflictingBookings(booking.getRoom().getRoomId(),
+                            booking.getStartTime(), booking.getEndTime());
+                    booking.setBookingStatus(conflict ? BookingStatus.REJECTED : BookingStatus.ACCEPTED);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(64)
+    public void jdbc() {
+        for (int i = 0; i < 64 / batchSize; i++) {
+            List<Booking> bookings = transactionTemplate.execute(status -> bookingStore.insertBookings(newBookings()));
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> accepted = new ArrayList<>(bookings.size());
+                List<Long> rejected = new ArrayList<>();
+                for (Booking booking : bookings) {
+                    boolean conflict = bookingStore.existsConflictingBooking(booking.getRoom().getRoomId(),
+                            booking.getStartTime(), booking.getEndTime());
+                    (conflict ? rejected : accepted).add(booking.getBookingId());
+                }
+                bookingStore.updatePendingStatuses(accepted, BookingStatus.ACCEPTED);
+                bookingStore.updatePendingStatuses(rejected, BookingStatus.REJECTED);
+            });
+        }
+    }
+
+    // one hour per booking, spread over the rooms and moving to a new week for every batch, so none of them conflict
+    private List<Booking> newBookings() {
+        LocalDateTime day = BenchmarkApplication.FIRST_DAY.plusWeeks(week++);
+        List<Booking> bookings = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            LocalDateTime startTime = day.plusDays(i / (8 * BenchmarkApplication.ROOMS)).withHour(9 + (i / BenchmarkApplication.ROOMS) % 8);
+            Booking booking = new Booking();
+            booking.setRoom(rooms.get(i % BenchmarkApplication.ROOMS));
+            booking.setStartTime(startTime);
+            booking.setEndTime(startTime.plusHours(1));
+            booking.setBookingStatus(BookingStatus.PENDING);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+}
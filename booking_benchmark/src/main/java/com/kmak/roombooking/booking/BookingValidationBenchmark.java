@@ -0,0 +1,33 @@
+package com.kmak.roombooking.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class BookingValidationBenchmark {
+
+    private final LocalDateTime weekday = BenchmarkApplication.FIRST_DAY.withHour(9);
+    private final LocalDateTime weekend = BenchmarkApplication.FIRST_DAY.with(DayOfWeek.SATURDAY).withHour(9);
+
+    @Benchmark
+    public void validBooking() {
+        BookingService.validateBookingTime(weekday, weekday.plusHours(1));
+    }
+
+    @Benchmark
+    public void rejectedBooking(Blackhole blackhole) {
+        try {
+            BookingService.validateBookingTime(weekend, weekend.plusHours(1));
+        } catch (InvalidBookingException e) {
+            blackhole.consume(e);
+        }
+    }
+}
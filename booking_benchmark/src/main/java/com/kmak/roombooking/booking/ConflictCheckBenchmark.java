@@ -0,0 +1,95 @@
+package com.kmak.roombooking.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ConflictCheckBenchmark {
+
+    private static final int PROBES = 4096;
+    private static final int SEED_BATCH = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bookings;
+
+    private ConfigurableApplicationContext context;
+    private BookingRepository bookingRepository;
+    private BookingStore bookingStore;
+    private AcceptedBookingIndex acceptedBookingIndex;
+    private final long[] probeRooms = new long[PROBES];
+    private final LocalDateTime[] probeStarts = new LocalDateTime[PROBES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("conflict" + bookings);
+        bookingRepository = context.getBean(BookingRepository.class);
+        bookingStore = context.getBean(BookingStore.class);
+        acceptedBookingIndex = context.getBean(AcceptedBookingIndex.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        // every room gets one accepted hour followed by one free hour, so half of the probes conflict
+        int perRoom = bookings / BenchmarkApplication.ROOMS;
+        List<Object[]> rows = new ArrayList<>(SEED_BATCH);
+        long bookingId = 1;
+        for (long room = 1; room <= BenchmarkApplication.ROOMS; room++) {
+            for (int slot = 0; slot < perRoom; slot++) {
+                LocalDateTime startTime = BenchmarkApplication.FIRST_DAY.plusHours(2L * slot);
+                rows.add(new Object[]{bookingId++, room, Timestamp.valueOf(startTime), Timestamp.valueOf(startTime.plusHours(1))});
+                acceptedBookingIndex.add(room, startTime, startTime.plusHours(1));
+                if (rows.size() == SEED_BATCH) {
+                    insertAccepted(jdbcTemplate, rows);
+                    rows.clear();
+                }
+            }
+        }
+        insertAccepted(jdbcTemplate, rows);
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < PROBES; i++) {
+            probeRooms[i] = random.nextLong(1, BenchmarkApplication.ROOMS + 1);
+            probeStarts[i] = BenchmarkApplication.FIRST_DAY.plusHours(random.nextLong(2L * perRoom)).plusMinutes(30);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean repositoryQuery() {
+        int probe = next++ & (PROBES - 1);
+        return bookingRepository.existsConflictingBookings(probeRooms[probe], probeStarts[probe], probeStarts[probe].plusHours(1));
+    }
+
+    @Benchmark
+    public boolean jdbcQuery() {
+        int probe = next++ & (PROBES - 1);
+        return bookingStore.existsConflictingBooking(probeRooms[probe], probeStarts[probe], probeStarts[probe].plusHours(1));
+    }
+
+    @Benchmark
+    public boolean acceptedBookingIndex() {
+        int probe = next++ & (PROBES - 1);
+        return acceptedBookingIndex.hasConflict(probeRooms[probe], probeStarts[probe], probeStarts[probe].plusHours(1));
+    }
+
+    private void insertAccepted(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (booking_id, room_id, start_time, end_time, request_time, booking_status) " +
+                "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, 'ACCEPTED')", rows);
+    }
+}
@@ -0,0 +1,75 @@
+package com.kmak.roombooking.booking;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FreeRoomSearchBenchmark {
+
+    private static final int DAYS = 20;
+    private static final int PROBES = 1024;
+
+    @Param({"100", "1000", "5000"})
+    public int rooms;
+
+    private AcceptedBookingIndex acceptedBookingIndex;
+    private List<Long> roomIds;
+    private final LocalDateTime[] probeStarts = new LocalDateTime[PROBES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // the index is filled directly, so init() and the repository it loads from are never used
+        acceptedBookingIndex = new AcceptedBookingIndex(null);
+        roomIds = LongStream.rangeClosed(1, rooms).boxed().toList();
+
+        // every room is booked for about half of each business day in half hour to two hour blocks
+        SplittableRandom random = new SplittableRandom(42);
+        for (long room = 1; room <= rooms; room++) {
+            for (int day = 0; day < DAYS; day++) {
+                LocalDateTime time = BenchmarkApplication.FIRST_DAY.plusDays(day).withHour(8);
+                LocalDateTime closing = time.withHour(18);
+                while (time.isBefore(closing)) {
+                    LocalDateTime end = time.plusMinutes(30L * random.nextInt(1, 5));
+                    if (random.nextBoolean()) {
+                        acceptedBookingIndex.add(room, time, end);
+                    }
+                    time = end;
+                }
+            }
+        }
+        for (int i = 0; i < PROBES; i++) {
+            probeStarts[i] = BenchmarkApplication.FIRST_DAY.plusDays(random.nextInt(DAYS)).withHour(random.nextInt(8, 17));
+        }
+    }
+
+    @Benchmark
+    public List<Long> slotBitmaps() {
+        LocalDateTime from = probeStarts[next++ & (PROBES - 1)];
+        return acceptedBookingIndex.findFreeRooms(roomIds, from, from.plusHours(1));
+    }
+
+    @Benchmark
+    public List<Long> conflictCheckPerRoom() {
+        LocalDateTime from = probeStarts[next++ & (PROBES - 1)];
+        LocalDateTime to = from.plusHours(1);
+        List<Long> free = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            if (!acceptedBookingIndex.hasConflict(roomId, from, to)) {
+                free.add(roomId);
+            }
+        }
+        return free;
+    }
+}
@@ -0,0 +1,77 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.BookingRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestConcurrencyBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int SLOTS_PER_DAY = 8;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"16", "256", "1024"})
+    public int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ExecutorService requestExecutor;
+    private int nextSlot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = threads.equals("virtual");
+        context = BenchmarkApplication.start("concurrency" + threads + concurrency, "spring.threads.virtual.enabled=" + virtual);
+        bookingService = context.getBean(BookingService.class);
+        // stands in for the Tomcat request threads that call the controller
+        requestExecutor = virtual
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void createBookings() {
+        int rounds = 1024 / concurrency;
+        for (int round = 0; round < rounds; round++) {
+            CompletableFuture<?>[] requests = new CompletableFuture[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                BookingRequest request = nextRequest();
+                requests[i] = CompletableFuture.runAsync(() -> bookingService.createNewBooking(request.roomId(), request.startTime(), request.endTime()), requestExecutor);
+            }
+            CompletableFuture.allOf(requests).join();
+        }
+    }
+
+    // every request gets its own free one hour slot, so the benchmark measures submission and not rejection
+    private BookingRequest nextRequest() {
+        int slot = nextSlot++;
+        int hour = slot / BenchmarkApplication.ROOMS;
+        int day = hour / SLOTS_PER_DAY;
+        LocalDateTime startTime = BenchmarkApplication.FIRST_DAY
+                .plusWeeks(day / 5)
+                .plusDays(day % 5)
+                .withHour(9 + hour % SLOTS_PER_DAY);
+        return new BookingRequest(1L + slot % BenchmarkApplication.ROOMS, startTime, startTime.plusHours(1));
+    }
+}
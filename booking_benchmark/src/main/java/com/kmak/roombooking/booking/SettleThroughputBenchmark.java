@@ -0,0 +1,58 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.BookingRequest;
+import com.kmak.roombooking.booking.model.BookingResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SettleThroughputBenchmark {
+
+    private static final int BOOKINGS = 200;
+
+    @Param({"1", "64"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private int week;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("settle" + batchSize, "booking.processor.batch-size=" + batchSize);
+        bookingService = context.getBean(BookingService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 200 requests over 80 free room hours, so 120 of them are rejected
+    @Benchmark
+    @OperationsPerInvocation(BOOKINGS)
+    public void submitAndSettle() {
+        LocalDateTime day = BenchmarkApplication.FIRST_DAY.plusWeeks(week++);
+        List<BookingRequest> requests = new ArrayList<>(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            LocalDateTime startTime = day.withHour(9 + (i / BenchmarkApplication.ROOMS) % 8);
+            requests.add(new BookingRequest(1L + i % BenchmarkApplication.ROOMS, startTime, startTime.plusHours(1)));
+        }
+        CompletableFuture<?>[] settlements = bookingService.createNewBookings(requests).stream()
+                .map(BookingResponse::bookingId)
+                .map(bookingId -> bookingService.awaitSettlement(bookingId).orElseThrow())
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(settlements).join();
+    }
+}
@@ -0,0 +1,79 @@
+package com.kmak;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+public record LoadConfig(URI baseUrl,
+                         int rate,
+                         int durationSeconds,
+                         int concurrency,
+                         int rooms,
+                         RoomDistribution roomDistribution,
+                         double conflictRatio,
+                         int startWeek,
+                         boolean sync,
+                         boolean awaitSettlement,
+                         int clients) {
+
+    public enum RoomDistribution {
+        UNIFORM,
+        ZIPF
+    }
+
+    private static final Set<String> OPTIONS = Set.of("url", "rate", "duration", "concurrency", "rooms",
+            "room-distribution", "conflict-ratio", "start-week", "sync", "await-settlement", "clients");
+
+    public static LoadConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String[] option = arg.substring(2).split("=", 2);
+            if (!OPTIONS.contains(option[0])) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        LoadConfig config = new LoadConfig(
+                URI.create(options.getOrDefault("url", "http://localhost:8080")),
+                Integer.parseInt(options.getOrDefault("rate", "100")),
+                Integer.parseInt(options.getOrDefault("duration", "30")),
+                Integer.parseInt(options.getOrDefault("concurrency", "256")),
+                Integer.parseInt(options.getOrDefault("rooms", "10")),
+                RoomDistribution.valueOf(options.getOrDefault("room-distribution", "uniform").toUpperCase()),
+                Double.parseDouble(options.getOrDefault("conflict-ratio", "0.1")),
+                Integer.parseInt(options.getOrDefault("start-week", String.valueOf(ThreadLocalRandom.current().nextInt(5000)))),
+                Boolean.parseBoolean(options.getOrDefault("sync", "false")),
+                Boolean.parseBoolean(options.getOrDefault("await-settlement", "true")),
+                Integer.parseInt(options.getOrDefault("clients", "1"))
+        );
+        if (config.rate < 1 || config.durationSeconds < 1 || config.concurrency < 1 || config.rooms < 1 || config.clients < 1) {
+            throw new IllegalArgumentException("rate, duration, concurrency, rooms and clients must be positive");
+        }
+        if (config.conflictRatio < 0 || config.conflictRatio > 1) {
+            throw new IllegalArgumentException("conflict-ratio must be between 0 and 1");
+        }
+        return config;
+    }
+
+    public static String usage() {
+        return """
+                Usage: Main [options]
+                  --url=http://localhost:8080      booking service base url
+                  --rate=100                       bookings submitted per second
+                  --duration=30                    seconds to submit bookings for
+                  --concurrency=256                maximum requests in flight
+                  --rooms=10                       number of rooms to book, ids 1..rooms
+                  --room-distribution=uniform      uniform or zipf (a few rooms get most bookings)
+                  --conflict-ratio=0.1             share of bookings that reuse an already requested slot
+                  --start-week=<random>            week offset of the first booked slot, after 2099-11-23
+                  --sync=false                     ask the service to settle bookings synchronously
+                  --await-settlement=true          wait for each booking to be settled
+                  --clients=1                      client ids to spread bookings over, sent as X-Client-Id
+                """;
+    }
+}
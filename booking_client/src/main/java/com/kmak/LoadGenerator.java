@@ -0,0 +1,186 @@
+package com.kmak;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadGenerator {
+
+    public record BookingResponse(Long bookingId, String message, String bookingStatus) {
+    }
+
+    public record BookingStatusResponse(Long bookingId, String bookingStatus) {
+    }
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final long SETTLEMENT_TIMEOUT_MS = 30000;
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final LoadConfig config;
+    private final SlotGenerator slots;
+    private final Semaphore inFlight;
+    private final Histogram submitLatency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final Histogram settleLatency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public LoadGenerator(LoadConfig config) {
+        this.config = config;
+        this.slots = new SlotGenerator(config);
+        this.inFlight = new Semaphore(config.concurrency());
+    }
+
+    public void run(PrintStream out) {
+        long total = (long) config.rate() * config.durationSeconds();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long startNanos;
+        long submitEndNanos;
+
+        try (HttpClient client = HttpClient.newHttpClient();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            startNanos = System.nanoTime();
+            // open loop: request i is due at start + i * interval whether or not earlier requests have completed,
+            // and its latency is measured from that due time so a stalled server is not hidden by a stalled client
+            for (long i = 0; i < total; i++) {
+                long dueNanos = startNanos + i * intervalNanos;
+                long delay = dueNanos - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                SlotGenerator.Slot slot = slots.next();
+                // round robin over the client ids, so each one sees rate / clients requests per second against
+                // its own rate limit bucket and queue share on the service
+                String clientId = "load-client-" + i % config.clients();
+                executor.execute(() -> book(client, slot, clientId, dueNanos));
+            }
+            submitEndNanos = System.nanoTime();
+        }
+        long endNanos = System.nanoTime();
+
+        report(out, total, submitEndNanos - startNanos, endNanos - startNanos);
+    }
+
+    private void book(HttpClient client, SlotGenerator.Slot slot, String clientId, long dueNanos) {
+        inFlight.acquireUninterruptibly();
+        try {
+            HttpResponse<String> response = client.send(createBookingRequest(slot, clientId), HttpResponse.BodyHandlers.ofString());
+            submitLatency.recordValue(Math.min(System.nanoTime() - dueNanos, MAX_LATENCY_NANOS));
+            if (response.statusCode() == 429) {
+                throttled.increment();
+                return;
+            }
+            if (response.statusCode() >= 400) {
+                failed.increment();
+                return;
+            }
+            BookingResponse booking = objectMapper.readValue(response.body(), BookingResponse.class);
+            String status = booking.bookingStatus();
+            if (config.awaitSettlement()) {
+                while ("PENDING".equals(status)) {
+                    status = awaitSettlement(client, booking.bookingId());
+                }
+                settleLatency.recordValue(Math.min(System.nanoTime() - dueNanos, MAX_LATENCY_NANOS));
+            }
+            if ("ACCEPTED".equals(status)) {
+                accepted.increment();
+            } else if ("REJECTED".equals(status)) {
+                rejected.increment();
+            }
+        } catch (IOException e) {
+            errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private String awaitSettlement(HttpClient client, long bookingId) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(bookingSettlementRequest(bookingId), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IOException("Settlement of booking " + bookingId + " failed: " + response.body());
+        }
+        return objectMapper.readValue(response.body(), BookingStatusResponse.class).bookingStatus();
+    }
+
+    private void report(PrintStream out, long total, long submitNanos, long elapsedNanos) {
+        double submitSeconds = submitNanos / 1e9;
+        double elapsedSeconds = elapsedNanos / 1e9;
+        out.printf("Target url          %s%n", config.baseUrl());
+        out.printf("Requests            %d in %.2f s (target %d/s, achieved %.1f/s)%n",
+                total, submitSeconds, config.rate(), total / submitSeconds);
+        out.printf("Completed           %d in %.2f s (%.1f/s)%n",
+                submitLatency.getTotalCount(), elapsedSeconds, submitLatency.getTotalCount() / elapsedSeconds);
+        out.printf("Accepted            %d%n", accepted.sum());
+        out.printf("Rejected            %d%n", rejected.sum());
+        out.printf("Throttled (429)     %d%n", throttled.sum());
+        out.printf("Failed (4xx/5xx)    %d%n", failed.sum());
+        out.printf("Errors (I/O)        %d%n", errors.sum());
+        printLatency(out, "Submit latency", submitLatency);
+        if (config.awaitSettlement()) {
+            printLatency(out, "Settle latency", settleLatency);
+        }
+    }
+
+    private static void printLatency(PrintStream out, String name, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            out.printf("%-20s no samples%n", name);
+            return;
+        }
+        out.printf("%-20s p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n", name,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private HttpRequest bookingSettlementRequest(long bookingId) {
+        return HttpRequest.newBuilder()
+                .uri(resolve("/api/bookings/" + bookingId + "/settlement?timeoutMs=" + SETTLEMENT_TIMEOUT_MS))
+                .timeout(Duration.ofMillis(SETTLEMENT_TIMEOUT_MS * 2))
+                .build();
+    }
+
+    private HttpRequest createBookingRequest(SlotGenerator.Slot slot, String clientId) {
+        return HttpRequest.newBuilder()
+                .uri(resolve(config.sync() ? "/api/bookings/new?sync=true" : "/api/bookings/new"))
+                .header("Content-Type", "application/json")
+                .header(CLIENT_ID_HEADER, clientId)
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        """
+                                {
+                                    "roomId": %d,
+                                    "startTime": "%s",
+                                    "endTime": "%s"
+                                }
+                                """.formatted(slot.roomId(), slot.startTime(), slot.endTime())
+                ))
+                .build();
+    }
+
+    private URI resolve(String path) {
+        return config.baseUrl().resolve(path);
+    }
+}
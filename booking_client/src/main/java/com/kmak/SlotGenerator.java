@@ -0,0 +1,66 @@
+package com.kmak;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+public class SlotGenerator {
+
+    public record Slot(long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private static final LocalDateTime FIRST_MONDAY = LocalDateTime.of(2099, 11, 23, 0, 0);
+    private static final int FIRST_HOUR = 9;
+    private static final int HOURS_PER_DAY = 8;
+    private static final int RECENT_SLOTS = 1024;
+
+    private final LoadConfig config;
+    private final SplittableRandom random = new SplittableRandom();
+    private final double[] roomWeights;
+    private final int[] nextSlot;
+    private final Slot[] recent = new Slot[RECENT_SLOTS];
+    private int recentCount;
+
+    public SlotGenerator(LoadConfig config) {
+        this.config = config;
+        this.nextSlot = new int[config.rooms()];
+        this.roomWeights = new double[config.rooms()];
+        double total = 0;
+        for (int room = 0; room < config.rooms(); room++) {
+            total += config.roomDistribution() == LoadConfig.RoomDistribution.ZIPF ? 1.0 / (room + 1) : 1.0;
+            roomWeights[room] = total;
+        }
+        for (int room = 0; room < config.rooms(); room++) {
+            roomWeights[room] /= total;
+        }
+    }
+
+    public synchronized Slot next() {
+        if (recentCount > 0 && random.nextDouble() < config.conflictRatio()) {
+            return recent[random.nextInt(Math.min(recentCount, RECENT_SLOTS))];
+        }
+        int room = pickRoom();
+        Slot slot = slotAt(room + 1, nextSlot[room]++);
+        recent[recentCount++ % RECENT_SLOTS] = slot;
+        return slot;
+    }
+
+    private int pickRoom() {
+        double sample = random.nextDouble();
+        for (int room = 0; room < roomWeights.length; room++) {
+            if (sample < roomWeights[room]) {
+                return room;
+            }
+        }
+        return roomWeights.length - 1;
+    }
+
+    // slots are one hour long, eight per weekday, so every fresh slot of a room is free
+    private Slot slotAt(long roomId, int index) {
+        int day = index / HOURS_PER_DAY;
+        LocalDateTime startTime = FIRST_MONDAY
+                .plusWeeks(config.startWeek() + day / 5)
+                .plusDays(day % 5)
+                .withHour(FIRST_HOUR + index % HOURS_PER_DAY);
+        return new Slot(roomId, startTime, startTime.plusHours(1));
+    }
+}
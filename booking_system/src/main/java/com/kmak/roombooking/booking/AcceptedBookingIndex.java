@@ -0,0 +1,96 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.TimeSlot;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Component
+public class AcceptedBookingIndex {
+
+    private final Logger logger = LoggerFactory.getLogger(AcceptedBookingIndex.class);
+    private final BookingRepository bookingRepository;
+    private final Map<Long, NavigableMap<LocalDateTime, LocalDateTime>> rooms = new ConcurrentHashMap<>();
+    private final RoomSlots slots = new RoomSlots();
+
+    public AcceptedBookingIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        List<Booking> accepted = bookingRepository.findAllAcceptedBookingsEndingAfter(LocalDateTime.now());
+        accepted.forEach(booking -> add(booking.getRoom().getRoomId(), booking.getStartTime(), booking.getEndTime()));
+        logger.info("Loaded {} accepted bookings into the booking index", accepted.size());
+    }
+
+    public boolean hasConflict(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        NavigableMap<LocalDateTime, LocalDateTime> schedule = rooms.get(roomId);
+        if (schedule == null) {
+            return false;
+        }
+        // accepted bookings of a room never overlap, so only the one starting last before endTime can conflict
+        Map.Entry<LocalDateTime, LocalDateTime> closest = schedule.lowerEntry(endTime);
+        return closest != null && startTime.isBefore(closest.getValue());
+    }
+
+    public List<TimeSlot> busySlots(Long roomId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, LocalDateTime> schedule = rooms.get(roomId);
+        if (schedule == null) {
+            return List.of();
+        }
+        LocalDateTime firstStart = schedule.floorKey(from);
+        List<TimeSlot> busy = new ArrayList<>();
+        schedule.subMap(firstStart != null ? firstStart : from, true, to, false).forEach((startTime, endTime) -> {
+            if (endTime.isAfter(from)) {
+                busy.add(new TimeSlot(startTime, endTime));
+            }
+        });
+        return busy;
+    }
+
+    public List<Long> findFreeRooms(Collection<Long> roomIds, LocalDateTime from, LocalDateTime to) {
+        RoomSlots.Query query = slots.query(from, to);
+        List<Long> free = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            RoomSlots.Match match = query.match(roomId);
+            if (match == RoomSlots.Match.FREE || match == RoomSlots.Match.UNCERTAIN && !hasConflict(roomId, from, to)) {
+                free.add(roomId);
+            }
+        }
+        return free;
+    }
+
+    public void add(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        rooms.computeIfAbsent(roomId, id -> new ConcurrentSkipListMap<>())
+                .merge(startTime, endTime, (current, added) -> current.isAfter(added) ? current : added);
+        slots.add(roomId, startTime, endTime);
+    }
+
+    public int removeEndedBefore(LocalDateTime time) {
+        int removed = 0;
+        for (NavigableMap<LocalDateTime, LocalDateTime> schedule : rooms.values()) {
+            var ended = schedule.headMap(time).entrySet().iterator();
+            while (ended.hasNext()) {
+                if (!ended.next().getValue().isAfter(time)) {
+                    ended.remove();
+                    removed++;
+                }
+            }
+        }
+        slots.removeDaysBefore(time.toLocalDate());
+        return removed;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.ArchivedBooking;
+import com.kmak.roombooking.booking.model.BookingView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    @Query("SELECT new com.kmak.roombooking.booking.model.BookingView(b.bookingId, r.roomId, r.roomName, b.startTime, b.endTime, b.bookingStatus) " +
+            "FROM ArchivedBooking b JOIN b.room r WHERE b.bookingId = :bookingId")
+    Optional<BookingView> findViewById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT new com.kmak.roombooking.booking.model.BookingView(b.bookingId, r.roomId, r.roomName, b.startTime, b.endTime, b.bookingStatus) " +
+            "FROM ArchivedBooking b JOIN b.room r WHERE b.recurringBookingId = :recurringBookingId")
+    List<BookingView> findViewsByRecurringBookingId(@Param("recurringBookingId") Long recurringBookingId);
+}
@@ -0,0 +1,57 @@
+package com.kmak.roombooking.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+@Component
+public class BookingArchiver {
+
+    private final Logger logger = LoggerFactory.getLogger(BookingArchiver.class);
+    private final BookingStore bookingStore;
+    private final AcceptedBookingIndex acceptedBookingIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionHours;
+    private final int batchSize;
+    private final Counter archivedCounter;
+
+    public BookingArchiver(BookingStore bookingStore, AcceptedBookingIndex acceptedBookingIndex,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${booking.archive.retention-hours:24}") long retentionHours,
+                           @Value("${booking.archive.batch-size:1000}") int batchSize) {
+        this.bookingStore = bookingStore;
+        this.acceptedBookingIndex = acceptedBookingIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionHours = retentionHours;
+        this.batchSize = batchSize;
+        this.archivedCounter = Counter.builder("booking.archive.archived")
+                .description("Settled bookings moved to the archive after they ended")
+                .register(meterRegistry);
+    }
+
+    // settled bookings are never updated again and a booking that has ended can no longer conflict with a new one,
+    // so they can be moved out of the bookings table in small transactions without holding any room lock
+    @Scheduled(fixedDelayString = "${booking.archive.interval-ms:3600000}", initialDelayString = "${booking.archive.interval-ms:3600000}")
+    public void archive() {
+        LocalDateTime endedBefore = LocalDateTime.now().minusHours(retentionHours);
+        long archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> bookingStore.archiveSettledBookings(endedBefore, batchSize));
+            archivedCounter.increment(moved);
+            archived += moved;
+        } while (moved == batchSize);
+        int removed = acceptedBookingIndex.removeEndedBefore(endedBefore);
+        if (archived > 0 || removed > 0) {
+            logger.info("Archived {} bookings and removed {} from the booking index that ended before {}", archived, removed, endedBefore);
+        }
+    }
+}
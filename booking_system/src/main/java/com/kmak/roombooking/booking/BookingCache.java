@@ -0,0 +1,44 @@
+package com.kmak.roombooking.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kmak.roombooking.booking.model.BookingView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class BookingCache {
+
+    private final Cache<Long, BookingView> bookings;
+
+    public BookingCache(MeterRegistry meterRegistry,
+                        @Value("${booking.cache.max-size:100000}") long maxSize,
+                        @Value("${booking.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.bookings = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, bookings, "bookings");
+    }
+
+    public Optional<BookingView> find(long bookingId) {
+        return Optional.ofNullable(bookings.getIfPresent(bookingId));
+    }
+
+    // a booking read from the database may already be settled by the time it is cached, so it never replaces
+    // an entry; only settlement overwrites, which keeps a racing read from putting back the pending status
+    public void add(BookingView booking) {
+        bookings.asMap().putIfAbsent(booking.bookingId(), booking);
+    }
+
+    public void settled(BookingView booking) {
+        bookings.put(booking.bookingId(), booking);
+    }
+
+}
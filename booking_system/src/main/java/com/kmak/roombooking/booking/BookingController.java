@@ -3,37 +3,106 @@ package com.kmak.roombooking.booking;
 import com.kmak.roombooking.booking.model.Booking;
 import com.kmak.roombooking.booking.model.BookingRequest;
 import com.kmak.roombooking.booking.model.BookingResponse;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingStatusResponse;
+import com.kmak.roombooking.booking.model.BookingView;
+import com.kmak.roombooking.booking.model.RecurringBookingRequest;
+import com.kmak.roombooking.booking.model.RecurringBookingResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
+    private static final long MAX_SETTLEMENT_WAIT_MS = 60_000;
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
     private final BookingService bookingService;
+    private final RecurringBookingService recurringBookingService;
+    private final int maxBatchSize;
+    private final boolean syncByDefault;
+    private final long retryAfterSeconds;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, RecurringBookingService recurringBookingService,
+                             @Value("${booking.batch.max-size:500}") int maxBatchSize,
+                             @Value("${booking.settlement.sync-by-default:false}") boolean syncByDefault,
+                             @Value("${booking.queue.retry-after-seconds:1}") long retryAfterSeconds) {
         this.bookingService = bookingService;
+        this.recurringBookingService = recurringBookingService;
+        this.maxBatchSize = maxBatchSize;
+        this.syncByDefault = syncByDefault;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Booking> getBooking(@PathVariable Long bookingId) {
+    public ResponseEntity<BookingView> getBooking(@PathVariable Long bookingId) {
         var booking = bookingService.getBooking(bookingId);
         return booking.map(ResponseEntity::ok).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
     }
 
+    @GetMapping("/{bookingId}/settlement")
+    public DeferredResult<BookingStatusResponse> awaitSettlement(@PathVariable Long bookingId,
+                                                                 @RequestParam(defaultValue = "30000") long timeoutMs) {
+        var settlement = bookingService.awaitSettlement(bookingId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found"));
+        var result = new DeferredResult<BookingStatusResponse>(Math.min(timeoutMs, MAX_SETTLEMENT_WAIT_MS),
+                new BookingStatusResponse(bookingId, BookingStatus.PENDING));
+        settlement.thenAccept(status -> result.setResult(new BookingStatusResponse(bookingId, status)));
+        result.onCompletion(() -> settlement.cancel(false));
+        return result;
+    }
+
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/new")
-    public BookingResponse newBooking(@RequestBody BookingRequest bookingRequest) {
-        Long bookingId = bookingService.createNewBooking(bookingRequest.roomId(), bookingRequest.startTime(), bookingRequest.endTime());
+    public BookingResponse newBooking(@RequestBody BookingRequest bookingRequest, @RequestParam(required = false) Boolean sync,
+                                      @RequestHeader(name = CLIENT_ID_HEADER, required = false) String clientId) {
+        if (sync != null ? sync : syncByDefault) {
+            Booking booking = bookingService.createAndSettleBooking(bookingRequest.roomId(), bookingRequest.startTime(), bookingRequest.endTime());
+            return BookingResponse.settled(booking.getBookingId(), booking.getBookingStatus());
+        }
+        Long bookingId = bookingService.createNewBooking(bookingRequest.roomId(), bookingRequest.startTime(), bookingRequest.endTime(), clientId);
         return new BookingResponse(bookingId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingResponse> newBookings(@RequestBody List<BookingRequest> bookingRequests,
+                                             @RequestHeader(name = CLIENT_ID_HEADER, required = false) String clientId) {
+        if (bookingRequests.size() > maxBatchSize) {
+            throw new InvalidBookingException("A batch cannot contain more than " + maxBatchSize + " bookings");
+        }
+        return bookingService.createNewBookings(bookingRequests, clientId);
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/recurring")
+    public RecurringBookingResponse newRecurringBooking(@RequestBody RecurringBookingRequest request) {
+        return recurringBookingService.createRecurringBooking(request);
+    }
+
+    @GetMapping("/recurring/{recurringBookingId}")
+    public List<BookingView> getRecurringBooking(@PathVariable Long recurringBookingId) {
+        return recurringBookingService.getOccurrences(recurringBookingId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Recurring booking not found"));
+    }
+
     @ExceptionHandler(InvalidBookingException.class)
     public ResponseEntity<String> handleInvalidBooking(InvalidBookingException e) {
         return ResponseEntity.badRequest().body(e.getMessage());
     }
 
+    @ExceptionHandler(BookingQueueFullException.class)
+    public ResponseEntity<String> handleQueueFull(BookingQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(e.getMessage());
+    }
+
 }
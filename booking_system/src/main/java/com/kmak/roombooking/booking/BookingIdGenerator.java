@@ -0,0 +1,39 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// hands out booking ids in blocks of ID_ALLOCATION_SIZE laid out as Hibernate's pooled optimizer does, each sequence
+// value being the last id of its block, so they never collide with ids JPA allocates from the same sequence.
+// The sequence is read through the JdbcTemplate, which inside a transaction uses the transaction's own connection;
+// fetching it on a second connection would deadlock the insert against itself once the pool is exhausted.
+@Component
+public class BookingIdGenerator {
+
+    private static final String NEXT_SEQUENCE_VALUE = "SELECT NEXT VALUE FOR " + Booking.ID_SEQUENCE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long nextId;
+    private long lastId = -1;
+
+    public BookingIdGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (nextId > lastId) {
+                lastId = jdbcTemplate.queryForObject(NEXT_SEQUENCE_VALUE, Long.class);
+                nextId = Math.max(1, lastId - Booking.ID_ALLOCATION_SIZE + 1);
+            }
+            return nextId++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@DependsOn({"entityManagerFactory", "bookingJournal"})
+public class BookingIdSequence {
+
+    private final Logger logger = LoggerFactory.getLogger(BookingIdSequence.class);
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingIdSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // bookings created before the id sequence existed were numbered by an identity column, and bookings replayed
+    // from the journal may carry ids the database lost track of, so the sequence has to be moved past them
+    @PostConstruct
+    public void init() {
+        long maxBookingId = jdbcTemplate.queryForObject("SELECT GREATEST(" +
+                "(SELECT COALESCE(MAX(booking_id), 0) FROM bookings), " +
+                "(SELECT COALESCE(MAX(booking_id), 0) FROM bookings_archive))", Long.class);
+        long nextValue = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = UPPER(?)", Long.class, Booking.ID_SEQUENCE);
+        if (nextValue - Booking.ID_ALLOCATION_SIZE < maxBookingId) {
+            long restartValue = maxBookingId + Booking.ID_ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + Booking.ID_SEQUENCE + " RESTART WITH " + restartValue);
+            logger.info("Moved {} to {} past existing booking ids", Booking.ID_SEQUENCE, restartValue);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+// Append-only, memory-mapped log of accepted booking requests. Requests are acknowledged once their record is
+// forced to disk, and a single force covers every record appended while the previous one ran. A writer thread
+// then inserts the bookings into the database in batches and moves the checkpoint in the header past them, so on
+// restart only the records after the checkpoint have to be replayed.
+//
+// Header: magic (8), generation (4), checkpoint (4). Record: generation (4), crc (4), booking id, room id,
+// start and end as epoch seconds, request time as epoch millis (8 each). The generation changes whenever the
+// journal wraps around to the start, so records left over from an earlier pass are never replayed.
+@Component
+public class BookingJournal {
+
+    private static final long MAGIC = 0x424f4f4b4a524e4cL;
+    private static final int GENERATION_OFFSET = 8;
+    private static final int CHECKPOINT_OFFSET = 12;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 48;
+    private static final int PAYLOAD_OFFSET = 8;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(BookingJournal.class);
+    private final BookingStore bookingStore;
+    private final BookingQueue bookingQueue;
+    private final BookingIdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Path path;
+    private final long size;
+    private final int batchSize;
+    private final Map<Long, PendingBookingRow> unwritten = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int generation;
+    private int writePosition;
+    private int durablePosition;
+    private int checkpointPosition;
+    private long appendedRecords;
+    private long durableRecords;
+    private RuntimeException failure;
+    private volatile boolean closed;
+    private Thread flusher;
+    private Thread writer;
+
+    public BookingJournal(BookingStore bookingStore, BookingQueue bookingQueue, BookingIdGenerator idGenerator,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${booking.journal.enabled:false}") boolean enabled,
+                          @Value("${booking.journal.path:./data/booking.journal}") Path path,
+                          @Value("${booking.journal.size-mb:64}") int sizeMb,
+                          @Value("${booking.journal.batch-size:500}") int batchSize) {
+        this.bookingStore = bookingStore;
+        this.bookingQueue = bookingQueue;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.path = path;
+        this.size = sizeMb * 1024L * 1024L;
+        this.batchSize = batchSize;
+        if (size > Integer.MAX_VALUE || size < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("booking.journal.size-mb must be between 1 and 2047");
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(size, channel.size()));
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        if (buffer.getLong(0) == MAGIC) {
+            generation = buffer.getInt(GENERATION_OFFSET);
+            checkpointPosition = buffer.getInt(CHECKPOINT_OFFSET);
+            replay();
+        } else {
+            generation = 1;
+            checkpointPosition = HEADER_SIZE;
+            writeHeader();
+        }
+        writePosition = checkpointPosition;
+        durablePosition = checkpointPosition;
+
+        Gauge.builder("booking.journal.unwritten", unwritten, Map::size)
+                .description("Journaled bookings not yet written to the database")
+                .register(meterRegistry);
+        Timer flushTimer = Timer.builder("booking.journal.flush")
+                .description("Time to force journaled bookings to disk")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        DistributionSummary flushSize = DistributionSummary.builder("booking.journal.flush.bookings")
+                .description("Bookings made durable by one journal flush")
+                .register(meterRegistry);
+        flusher = Thread.ofPlatform().name("booking-journal-flush").daemon().start(() -> flushLoop(flushTimer, flushSize));
+        writer = Thread.ofPlatform().name("booking-journal-writer").daemon().start(this::writeLoop);
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            closed = true;
+            appended.signalAll();
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        writer.join();
+        flusher.join();
+        buffer.force();
+        channel.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Long> append(List<Booking> bookings) {
+        LocalDateTime requestTime = LocalDateTime.now();
+        List<PendingBookingRow> rows = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            rows.add(new PendingBookingRow(idGenerator.nextId(), booking.getRoom().getRoomId(),
+                    booking.getStartTime(), booking.getEndTime(), requestTime));
+        }
+        lock.lock();
+        try {
+            ensureCapacity(rows.size() * RECORD_SIZE);
+            for (PendingBookingRow row : rows) {
+                write(writePosition, row);
+                unwritten.put(row.bookingId(), row);
+                writePosition += RECORD_SIZE;
+            }
+            appendedRecords += rows.size();
+            long awaited = appendedRecords;
+            appended.signal();
+            while (durableRecords < awaited && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return rows.stream().map(PendingBookingRow::bookingId).toList();
+    }
+
+    public Optional<PendingBookingRow> findUnwritten(long bookingId) {
+        return Optional.ofNullable(unwritten.get(bookingId));
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (writePosition + bytes <= capacity) {
+            return;
+        }
+        if (checkpointPosition != writePosition || HEADER_SIZE + bytes > capacity) {
+            throw new BookingQueueFullException("Booking journal is full");
+        }
+        generation++;
+        writePosition = HEADER_SIZE;
+        durablePosition = HEADER_SIZE;
+        checkpointPosition = HEADER_SIZE;
+        writeHeader();
+    }
+
+    private void flushLoop(Timer flushTimer, DistributionSummary flushSize) {
+        try {
+            while (true) {
+                int from;
+                int to;
+                long records;
+                lock.lockInterruptibly();
+                try {
+                    while (durablePosition == writePosition && !closed) {
+                        appended.await();
+                    }
+                    if (durablePosition == writePosition) {
+                        return;
+                    }
+                    from = durablePosition;
+                    to = writePosition;
+                    records = appendedRecords;
+                } finally {
+                    lock.unlock();
+                }
+                long start = System.nanoTime();
+                buffer.force(from, to - from);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                flushSize.record((double) (to - from) / RECORD_SIZE);
+                lock.lock();
+                try {
+                    durablePosition = to;
+                    durableRecords = records;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            logger.error("Failed to flush the booking journal", e);
+            lock.lock();
+            try {
+                failure = e;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                int from;
+                int to;
+                lock.lockInterruptibly();
+                try {
+                    while (checkpointPosition == durablePosition && !closed) {
+                        flushed.await();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    from = checkpointPosition;
+                    to = Math.min(durablePosition, from + batchSize * RECORD_SIZE);
+                } finally {
+                    lock.unlock();
+                }
+                List<PendingBookingRow> rows = read(from, to);
+                int[] insertCounts = insertWithRetry(rows);
+                if (insertCounts == null) {
+                    return;
+                }
+                lock.lock();
+                try {
+                    checkpointPosition = to;
+                    putHeader();
+                } finally {
+                    lock.unlock();
+                }
+                buffer.force(0, HEADER_SIZE);
+                for (int i = 0; i < rows.size(); i++) {
+                    PendingBookingRow row = rows.get(i);
+                    unwritten.remove(row.bookingId());
+                    if (insertCounts[i] > 0) {
+                        bookingQueue.add(row.toPendingBooking());
+                    } else {
+                        bookingQueue.release(row.roomId());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private int[] insertWithRetry(List<PendingBookingRow> rows) throws InterruptedException {
+        while (!closed) {
+            try {
+                return transactionTemplate.execute(status -> bookingStore.insertPendingBookings(rows));
+            } catch (DataIntegrityViolationException e) {
+                return insertEach(rows);
+            } catch (DataAccessException e) {
+                logger.warn("Failed to write journaled bookings to the database, retrying", e);
+                Thread.sleep(RETRY_DELAY_MS);
+            }
+        }
+        return null;
+    }
+
+    private int[] insertEach(List<PendingBookingRow> rows) {
+        int[] insertCounts = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            PendingBookingRow row = rows.get(i);
+            try {
+                insertCounts[i] = transactionTemplate.execute(status -> bookingStore.insertPendingBookings(List.of(row)))[0];
+            } catch (DataIntegrityViolationException e) {
+                logger.error("Dropped journaled booking {} that cannot be stored", row.bookingId(), e);
+            }
+        }
+        return insertCounts;
+    }
+
+    private void replay() {
+        List<PendingBookingRow> rows = read(checkpointPosition, capacity);
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<PendingBookingRow> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            transactionTemplate.execute(status -> bookingStore.insertPendingBookings(batch));
+        }
+        checkpointPosition += rows.size() * RECORD_SIZE;
+        writeHeader();
+        logger.info("Replayed {} bookings from the booking journal", rows.size());
+    }
+
+    private List<PendingBookingRow> read(int from, int to) {
+        List<PendingBookingRow> rows = new ArrayList<>((to - from) / RECORD_SIZE);
+        for (int position = from; position + RECORD_SIZE <= to; position += RECORD_SIZE) {
+            if (buffer.getInt(position) != generation || buffer.getInt(position + 4) != checksum(position)) {
+                break;
+            }
+            rows.add(new PendingBookingRow(
+                    buffer.getLong(position + 8),
+                    buffer.getLong(position + 16),
+                    LocalDateTime.ofEpochSecond(buffer.getLong(position + 24), 0, ZoneOffset.UTC),
+                    LocalDateTime.ofEpochSecond(buffer.getLong(position + 32), 0, ZoneOffset.UTC),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(position + 40)), ZoneOffset.UTC)));
+        }
+        return rows;
+    }
+
+    private void write(int position, PendingBookingRow row) {
+        buffer.putInt(position, generation);
+        buffer.putLong(position + 8, row.bookingId());
+        buffer.putLong(position + 16, row.roomId());
+        buffer.putLong(position + 24, row.startTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(position + 32, row.endTime().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(position + 40, row.requestTime().toInstant(ZoneOffset.UTC).toEpochMilli());
+        buffer.putInt(position + 4, checksum(position));
+    }
+
+    private int checksum(int position) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + PAYLOAD_OFFSET, RECORD_SIZE - PAYLOAD_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private void writeHeader() {
+        putHeader();
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    private void putHeader() {
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(GENERATION_OFFSET, generation);
+        buffer.putInt(CHECKPOINT_OFFSET, checkpointPosition);
+    }
+}
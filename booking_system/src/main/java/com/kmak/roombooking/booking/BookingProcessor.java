@@ -1,44 +1,107 @@
 package com.kmak.roombooking.booking;
 
+import com.kmak.roombooking.booking.model.PendingBooking;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 @Component
 public class BookingProcessor {
 
+    private static final long RETRY_DELAY_MS = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(BookingProcessor.class);
     private final BookingQueue bookingQueue;
     private final BookingService bookingService;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final long batchWaitMillis;
 
-    public BookingProcessor(BookingQueue bookingQueue, BookingService bookingService) {
+    public BookingProcessor(BookingQueue bookingQueue, BookingService bookingService,
+                            @Value("${booking.processor.batch-size:64}") int batchSize,
+                            @Value("${booking.processor.batch-wait-ms:10}") long batchWaitMillis,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.bookingQueue = bookingQueue;
         this.bookingService = bookingService;
+        this.batchSize = batchSize;
+        this.batchWaitMillis = batchWaitMillis;
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("booking-lane-", 0).factory()
+                : Thread.ofPlatform().name("booking-lane-", 0).factory();
+        this.executor = Executors.newThreadPerTaskExecutor(threadFactory);
     }
 
     @PostConstruct
     public void start() {
-        executor.execute(() -> {
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    var booking = bookingQueue.consume();
-                    logger.info("Processing booking {}", booking.getBookingId());
-                    bookingService.settlePendingBooking(booking);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        });
+        for (int lane = 0; lane < bookingQueue.laneCount(); lane++) {
+            int laneId = lane;
+            executor.execute(() -> drainLane(laneId));
+        }
     }
 
     @PreDestroy
     public void stop() {
-        executor.shutdown();
+        executor.shutdownNow();
+    }
+
+    private void drainLane(int lane) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (batchSize > 1) {
+                    List<PendingBooking> batch = new ArrayList<>(batchSize);
+                    bookingQueue.drain(lane, batch, batchSize, batchWaitMillis);
+                    logger.debug("Processing {} bookings on lane {} ({} waiting)", batch.size(), lane, bookingQueue.depth(lane));
+                    settleBatch(lane, batch);
+                } else {
+                    var booking = bookingQueue.consume(lane);
+                    logger.debug("Processing booking {} on lane {} ({} waiting)", booking.bookingId(), lane, bookingQueue.depth(lane));
+                    settleWithRetry(lane, booking);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // the bookings have already left the queue, so a failed batch is settled again here, one booking at a time so
+    // that a booking that can never be settled does not take the rest of its batch down with it
+    private void settleBatch(int lane, List<PendingBooking> batch) throws InterruptedException {
+        try {
+            bookingService.settlePendingBookings(batch);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to settle {} bookings on lane {}, settling them one at a time", batch.size(), lane, e);
+            for (PendingBooking booking : batch) {
+                settleWithRetry(lane, booking);
+            }
+        }
+    }
+
+    // a transient database outage is retried for as long as it lasts, as every later booking of the lane would fail
+    // the same way; anything else is a booking that cannot be settled, which stays pending until recovery finds it
+    // again rather than holding up the rest of its lane
+    private void settleWithRetry(int lane, PendingBooking booking) throws InterruptedException {
+        while (true) {
+            try {
+                bookingService.settlePendingBooking(booking);
+                return;
+            } catch (TransientDataAccessException | RecoverableDataAccessException e) {
+                logger.warn("Failed to settle booking {} on lane {}, retrying", booking.bookingId(), lane, e);
+                Thread.sleep(RETRY_DELAY_MS);
+            } catch (RuntimeException e) {
+                logger.error("Failed to settle booking {} on lane {}", booking.bookingId(), lane, e);
+                return;
+            }
+        }
     }
 }
@@ -1,33 +1,255 @@
 package com.kmak.roombooking.booking;
 
-import com.kmak.roombooking.booking.model.Booking;
-import jakarta.annotation.PostConstruct;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 @Component
 public class BookingQueue {
 
-    private final BookingRepository bookingRepository;
-    private final BlockingQueue<Booking> queue = new LinkedBlockingQueue<>();
+    private static final long RESERVE_RETRY_MS = 1;
+    private static final String DEFAULT_CLIENT = "anonymous";
+    private static final String OTHER_CLIENTS = "other";
 
-    public BookingQueue(BookingRepository bookingRepository) {
-        this.bookingRepository = bookingRepository;
+    private final List<BookingRing> lanes;
+    private final List<ClientScheduler> schedulers;
+    private final MeterRegistry meterRegistry;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+    private final Map<String, QueueClient> clients = new ConcurrentHashMap<>();
+    private final int maxClients;
+    private final QueueClient defaultClient;
+    private final QueueClient otherClients;
+    private volatile boolean recovering;
+
+    public BookingQueue(MeterRegistry meterRegistry,
+                        @Value("${booking.processor.lanes:4}") int laneCount,
+                        @Value("${booking.queue.capacity:16384}") int capacity,
+                        @Value("${booking.queue.client-quantum:16}") int clientQuantum,
+                        @Value("${booking.queue.max-clients:100}") int maxClients) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("booking.processor.lanes must be at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.waitTimer = Timer.builder("booking.queue.wait")
+                .description("Time a booking spends in the queue before a lane picks it up")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lanes = IntStream.range(0, laneCount)
+                .mapToObj(i -> new BookingRing(capacity))
+                .toList();
+        this.schedulers = IntStream.range(0, laneCount)
+                .mapToObj(i -> new ClientScheduler(clientQuantum))
+                .toList();
+        this.maxClients = maxClients;
+        this.defaultClient = newClient(DEFAULT_CLIENT);
+        this.otherClients = newClient(OTHER_CLIENTS);
+        this.rejectedCounter = Counter.builder("booking.queue.rejected")
+                .description("Bookings turned away because their lane was full")
+                .register(meterRegistry);
+        for (int lane = 0; lane < laneCount; lane++) {
+            int laneId = lane;
+            Gauge.builder("booking.queue.depth", this, queue -> queue.depth(laneId))
+                    .description("Bookings waiting to be settled")
+                    .tag("lane", String.valueOf(lane))
+                    .register(meterRegistry);
+        }
+    }
+
+    public void startRecovery() {
+        recovering = true;
+    }
+
+    public void finishRecovery() {
+        recovering = false;
+    }
+
+    public boolean isRecovering() {
+        return recovering;
+    }
+
+    public boolean reserve(Long roomId) {
+        if (lanes.get(laneOf(roomId)).tryReserve(1)) {
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    public boolean reserveAll(List<Long> roomIds) {
+        int[] counts = countPerLane(roomIds);
+        for (int lane = 0; lane < counts.length; lane++) {
+            if (counts[lane] > 0 && !lanes.get(lane).tryReserve(counts[lane])) {
+                for (int reserved = 0; reserved < lane; reserved++) {
+                    lanes.get(reserved).release(counts[reserved]);
+                }
+                rejectedCounter.increment(roomIds.size());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void release(Long roomId) {
+        lanes.get(laneOf(roomId)).release(1);
+    }
+
+    public void releaseAll(List<Long> roomIds) {
+        int[] counts = countPerLane(roomIds);
+        for (int lane = 0; lane < counts.length; lane++) {
+            lanes.get(lane).release(counts[lane]);
+        }
+    }
+
+    public void add(PendingBooking booking) {
+        add(booking, null);
+    }
+
+    // while recovering, new bookings are left in the database for the recovery scan, which queues them after the backlog
+    public void add(PendingBooking booking, String clientId) {
+        BookingRing lane = lanes.get(laneOf(booking.roomId()));
+        if (recovering) {
+            lane.release(1);
+        } else {
+            publish(lane, booking, client(clientId), System.nanoTime());
+        }
+    }
+
+    public void addAll(List<PendingBooking> bookings) {
+        addAll(bookings, null);
+    }
+
+    public void addAll(List<PendingBooking> bookings, String clientId) {
+        QueueClient client = client(clientId);
+        long enqueuedAt = System.nanoTime();
+        for (PendingBooking booking : bookings) {
+            BookingRing lane = lanes.get(laneOf(booking.roomId()));
+            if (recovering) {
+                lane.release(1);
+            } else {
+                publish(lane, booking, client, enqueuedAt);
+            }
+        }
+    }
+
+    public void put(PendingBooking booking) throws InterruptedException {
+        BookingRing lane = lanes.get(laneOf(booking.roomId()));
+        while (!lane.tryReserve(1)) {
+            Thread.sleep(RESERVE_RETRY_MS);
+        }
+        publish(lane, booking, defaultClient, System.nanoTime());
+    }
+
+    private void publish(BookingRing lane, PendingBooking booking, QueueClient client, long enqueuedAt) {
+        client.depth().incrementAndGet();
+        lane.publish(booking, client, enqueuedAt);
+    }
+
+    public PendingBooking consume(int lane) throws InterruptedException {
+        BookingRing ring = lanes.get(lane);
+        ClientScheduler scheduler = schedulers.get(lane);
+        if (scheduler.isEmpty()) {
+            scheduler.add(ring.take());
+        }
+        ring.drainTo(scheduler);
+        return dispatch(ring, scheduler.next());
+    }
+
+    public void drain(int lane, List<PendingBooking> batch, int maxBatchSize, long maxWaitMillis) throws InterruptedException {
+        BookingRing ring = lanes.get(lane);
+        ClientScheduler scheduler = schedulers.get(lane);
+        if (scheduler.isEmpty()) {
+            scheduler.add(ring.take());
+        }
+        int drained = 0;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            ring.drainTo(scheduler);
+            QueuedBooking next;
+            while (drained < maxBatchSize && (next = scheduler.next()) != null) {
+                batch.add(dispatch(ring, next));
+                drained++;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (drained >= maxBatchSize || remaining <= 0) {
+                break;
+            }
+            QueuedBooking arrived = ring.poll(remaining, TimeUnit.NANOSECONDS);
+            if (arrived == null) {
+                break;
+            }
+            scheduler.add(arrived);
+        }
+    }
+
+    private PendingBooking dispatch(BookingRing ring, QueuedBooking booking) {
+        long waited = System.nanoTime() - booking.enqueuedAt();
+        waitTimer.record(waited, TimeUnit.NANOSECONDS);
+        booking.client().waitTimer().record(waited, TimeUnit.NANOSECONDS);
+        booking.client().depth().decrementAndGet();
+        ring.release(1);
+        return booking.booking();
+    }
+
+    // the metrics are tagged per client, so only the first maxClients clients get their own share and tags
+    private QueueClient client(String clientId) {
+        if (clientId == null || clientId.isBlank() || clientId.equals(DEFAULT_CLIENT)) {
+            return defaultClient;
+        }
+        QueueClient client = clients.get(clientId);
+        if (client != null) {
+            return client;
+        }
+        if (clients.size() >= maxClients || clientId.equals(OTHER_CLIENTS)) {
+            return otherClients;
+        }
+        return clients.computeIfAbsent(clientId, this::newClient);
+    }
+
+    private QueueClient newClient(String name) {
+        QueueClient client = new QueueClient(name, Timer.builder("booking.queue.client.wait")
+                .description("Time a booking of a client spends in the queue before a lane picks it up")
+                .tag("client", name)
+                .register(meterRegistry));
+        Gauge.builder("booking.queue.client.depth", client, c -> c.depth().get())
+                .description("Bookings of a client waiting to be settled")
+                .tag("client", name)
+                .register(meterRegistry);
+        return client;
+    }
+
+    public int laneCount() {
+        return lanes.size();
+    }
+
+    public int depth(int lane) {
+        return lanes.get(lane).size() + schedulers.get(lane).size();
     }
 
-    @PostConstruct
-    public void init() {
-        queue.addAll(bookingRepository.findAllPendingBookings());
+    public int capacity(int lane) {
+        return lanes.get(lane).capacity();
     }
 
-    public void add(Booking booking) {
-        queue.add(booking);
+    public int laneOf(Long roomId) {
+        return Math.floorMod(roomId.hashCode(), lanes.size());
     }
 
-    public Booking consume() throws InterruptedException {
-        return queue.take();
+    private int[] countPerLane(List<Long> roomIds) {
+        int[] counts = new int[lanes.size()];
+        for (Long roomId : roomIds) {
+            counts[laneOf(roomId)]++;
+        }
+        return counts;
     }
 
 }
@@ -0,0 +1,7 @@
+package com.kmak.roombooking.booking;
+
+public class BookingQueueFullException extends RuntimeException {
+    public BookingQueueFullException(String message) {
+        super(message);
+    }
+}
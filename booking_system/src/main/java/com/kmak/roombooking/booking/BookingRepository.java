@@ -1,6 +1,9 @@
 package com.kmak.roombooking.booking;
 
 import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingView;
+import com.kmak.roombooking.booking.model.TimeSlot;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,16 +11,34 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    @Query("SELECT b FROM Booking b WHERE b.bookingStatus = 'PENDING' ORDER BY b.requestTime")
-    List<Booking> findAllPendingBookings();
+    @Query("SELECT new com.kmak.roombooking.booking.model.BookingView(b.bookingId, r.roomId, r.roomName, b.startTime, b.endTime, b.bookingStatus) " +
+            "FROM Booking b JOIN b.room r WHERE b.bookingId = :bookingId")
+    Optional<BookingView> findViewById(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT new com.kmak.roombooking.booking.model.BookingView(b.bookingId, r.roomId, r.roomName, b.startTime, b.endTime, b.bookingStatus) " +
+            "FROM Booking b JOIN b.room r WHERE b.recurringBookingId = :recurringBookingId")
+    List<BookingView> findViewsByRecurringBookingId(@Param("recurringBookingId") Long recurringBookingId);
+
+    long countByBookingStatus(BookingStatus bookingStatus);
+
+    @Query("SELECT b FROM Booking b WHERE b.bookingStatus = 'ACCEPTED' AND b.endTime > :time")
+    List<Booking> findAllAcceptedBookingsEndingAfter(@Param("time") LocalDateTime time);
 
     @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END FROM Booking b WHERE b.room.roomId = :roomId AND b.bookingStatus = 'ACCEPTED' " +
             "AND ((:startTime < b.endTime AND :endTime > b.startTime))")
     boolean existsConflictingBookings(@Param("roomId") Long roomId,
                                       @Param("startTime") LocalDateTime startTime,
                                       @Param("endTime") LocalDateTime endTime);
+
+    @Query("SELECT new com.kmak.roombooking.booking.model.TimeSlot(b.startTime, b.endTime) FROM Booking b " +
+            "WHERE b.room.roomId = :roomId AND b.bookingStatus = 'ACCEPTED' AND b.startTime < :to AND b.endTime > :from " +
+            "ORDER BY b.startTime")
+    List<TimeSlot> findAcceptedSlots(@Param("roomId") Long roomId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
 }
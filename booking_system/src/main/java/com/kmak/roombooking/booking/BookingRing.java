@@ -0,0 +1,168 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.PendingBooking;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded multi-producer, single-consumer ring of pending bookings. Producers reserve slots before publishing,
+// so a publish never waits for space, and only the lane thread that owns the ring may poll it. A slot is only
+// given back once the booking polled from it has been handed out by the lane's ClientScheduler, so the bookings
+// in the ring and in the scheduler together never exceed the capacity.
+class BookingRing {
+
+    private static final int SPINS = 100;
+
+    private final int capacity;
+    private final int mask;
+    private final long[] bookingIds;
+    private final long[] roomIds;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final long[] enqueuedAt;
+    private final QueueClient[] clients;
+    private final AtomicLongArray published;
+    private final AtomicInteger free;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private volatile Thread waiter;
+
+    BookingRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("booking.queue.capacity must be at least 1");
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.bookingIds = new long[this.capacity];
+        this.roomIds = new long[this.capacity];
+        this.startTimes = new long[this.capacity];
+        this.endTimes = new long[this.capacity];
+        this.enqueuedAt = new long[this.capacity];
+        this.clients = new QueueClient[this.capacity];
+        this.published = new AtomicLongArray(this.capacity);
+        this.free = new AtomicInteger(this.capacity);
+    }
+
+    boolean tryReserve(int count) {
+        int available = free.get();
+        while (available >= count) {
+            if (free.compareAndSet(available, available - count)) {
+                return true;
+            }
+            available = free.get();
+        }
+        return false;
+    }
+
+    void release(int count) {
+        free.addAndGet(count);
+    }
+
+    void publish(PendingBooking booking, QueueClient client, long now) {
+        long position = tail.getAndIncrement();
+        int index = (int) position & mask;
+        bookingIds[index] = booking.bookingId();
+        roomIds[index] = booking.roomId();
+        startTimes[index] = toEpochSecond(booking.startTime());
+        endTimes[index] = toEpochSecond(booking.endTime());
+        enqueuedAt[index] = now;
+        clients[index] = client;
+        published.set(index, position + 1);
+        Thread consumer = waiter;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    QueuedBooking poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (published.get(index) != position + 1) {
+            return null;
+        }
+        QueuedBooking booking = new QueuedBooking(new PendingBooking(bookingIds[index], roomIds[index],
+                toDateTime(startTimes[index]), toDateTime(endTimes[index])), clients[index], position, enqueuedAt[index]);
+        clients[index] = null;
+        head = position + 1;
+        return booking;
+    }
+
+    QueuedBooking poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        QueuedBooking booking;
+        int spins = 0;
+        while ((booking = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                park(remaining);
+            }
+        }
+        return booking;
+    }
+
+    QueuedBooking take() throws InterruptedException {
+        QueuedBooking booking;
+        int spins = 0;
+        while ((booking = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (spins++ < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                park(0);
+            }
+        }
+        return booking;
+    }
+
+    void drainTo(ClientScheduler scheduler) {
+        QueuedBooking booking;
+        while ((booking = poll()) != null) {
+            scheduler.add(booking);
+        }
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    // waiter is written before the slot is checked again and read after a slot is published,
+    // so either the consumer sees the new booking or the producer sees the waiter and unparks it
+    private void park(long nanos) {
+        waiter = Thread.currentThread();
+        if (published.get((int) head & mask) != head + 1) {
+            if (nanos > 0) {
+                LockSupport.parkNanos(this, nanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        waiter = null;
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
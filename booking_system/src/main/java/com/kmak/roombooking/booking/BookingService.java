@@ -1,67 +1,347 @@
 package com.kmak.roombooking.booking;
 
 import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingRequest;
+import com.kmak.roombooking.booking.model.BookingResponse;
 import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingView;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import com.kmak.roombooking.booking.model.Room;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class BookingService {
 
     private final BookingQueue bookingQueue;
     private final BookingRepository bookingRepository;
-    private final RoomRepository roomRepository;
+    private final BookingStore bookingStore;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final RoomRegistry roomRegistry;
+    private final AcceptedBookingIndex acceptedBookingIndex;
+    private final BookingSettlementNotifier settlementNotifier;
+    private final RoomLocks roomLocks;
+    private final ClusterSettlement clusterSettlement;
+    private final BookingJournal bookingJournal;
+    private final BookingCache bookingCache;
     private final TransactionTemplate transactionTemplate;
+    private final Timer createTimer;
+    private final Timer settleTimer;
+    private final Timer conflictCheckTimer;
+    private final Map<BookingStatus, Counter> settledCounters = new EnumMap<>(BookingStatus.class);
 
-    public BookingService(BookingQueue bookingQueue, BookingRepository bookingRepository, RoomRepository roomRepository, PlatformTransactionManager transactionManager) {
+    public BookingService(BookingQueue bookingQueue, BookingRepository bookingRepository, BookingStore bookingStore,
+                          ArchivedBookingRepository archivedBookingRepository, RoomRegistry roomRegistry,
+                          AcceptedBookingIndex acceptedBookingIndex, BookingSettlementNotifier settlementNotifier,
+                          RoomLocks roomLocks, ClusterSettlement clusterSettlement, BookingJournal bookingJournal,
+                          BookingCache bookingCache, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.bookingQueue = bookingQueue;
         this.bookingRepository = bookingRepository;
-        this.roomRepository = roomRepository;
+        this.bookingStore = bookingStore;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.roomRegistry = roomRegistry;
+        this.acceptedBookingIndex = acceptedBookingIndex;
+        this.settlementNotifier = settlementNotifier;
+        this.roomLocks = roomLocks;
+        this.clusterSettlement = clusterSettlement;
+        this.bookingJournal = bookingJournal;
+        this.bookingCache = bookingCache;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.createTimer = Timer.builder("booking.create")
+                .description("Time to validate, store and enqueue or settle new bookings")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.settleTimer = Timer.builder("booking.settle")
+                .description("Time to settle a pending booking or a batch of pending bookings")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.conflictCheckTimer = Timer.builder("booking.conflict.check")
+                .description("Time to check a booking against the accepted bookings of its room")
+                .register(meterRegistry);
+        for (BookingStatus status : List.of(BookingStatus.ACCEPTED, BookingStatus.REJECTED)) {
+            settledCounters.put(status, Counter.builder("booking.settled")
+                    .description("Bookings settled")
+                    .tag("status", status.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    public Optional<BookingView> getBooking(long bookingId) {
+        Optional<BookingView> cached = bookingCache.find(bookingId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        // a journaled booking is only removed from the journal once its row is stored, so check the journal first
+        Optional<PendingBookingRow> unwritten = bookingJournal.findUnwritten(bookingId);
+        if (unwritten.isPresent()) {
+            return unwritten.map(row -> view(row.toPendingBooking(), BookingStatus.PENDING));
+        }
+        Optional<BookingView> booking = bookingRepository.findViewById(bookingId)
+                .or(() -> archivedBookingRepository.findViewById(bookingId));
+        // with several instances a pending booking may be settled elsewhere, where this cache is not updated
+        booking.filter(view -> !clusterSettlement.isEnabled() || view.bookingStatus() != BookingStatus.PENDING)
+                .ifPresent(bookingCache::add);
+        return booking;
     }
 
-    public Optional<Booking> getBooking(long bookingId) {
-        return bookingRepository.findById(bookingId);
+    private BookingView view(PendingBooking booking, BookingStatus status) {
+        String roomName = roomRegistry.find(booking.roomId()).map(Room::getRoomName).orElse(null);
+        return new BookingView(booking.bookingId(), booking.roomId(), roomName, booking.startTime(), booking.endTime(), status);
     }
 
     public Long createNewBooking(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        return createNewBooking(roomId, startTime, endTime, null);
+    }
+
+    // clientId picks the share of the settlement queue the booking waits in; see BookingQueue
+    public Long createNewBooking(Long roomId, LocalDateTime startTime, LocalDateTime endTime, String clientId) {
+        return createTimer.record(() -> {
+            Booking booking = newBooking(roomId, startTime, endTime);
+            if (!bookingQueue.reserve(roomId)) {
+                throw new BookingQueueFullException("Too many bookings waiting to be settled");
+            }
+            Booking newBooking;
+            try {
+                if (bookingJournal.isEnabled()) {
+                    return bookingJournal.append(List.of(booking)).getFirst();
+                }
+                newBooking = insert(List.of(roomId), status -> bookingStore.insertBookings(List.of(booking)).getFirst());
+            } catch (RuntimeException e) {
+                bookingQueue.release(roomId);
+                throw e;
+            }
+            bookingCache.add(BookingView.of(newBooking));
+            bookingQueue.add(PendingBooking.of(newBooking), clientId);
+            return newBooking.getBookingId();
+        });
+    }
+
+    public Booking createAndSettleBooking(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        return createTimer.record(() -> settleNewBooking(roomId, startTime, endTime));
+    }
+
+    private Booking settleNewBooking(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        Booking booking = newBooking(roomId, startTime, endTime);
+        return roomLocks.withLock(roomId, () -> {
+            Booking newBooking = insert(List.of(roomId), status -> {
+                clusterSettlement.lockRooms(List.of(roomId));
+                if (hasConflict(roomId, booking.getStartTime(), booking.getEndTime())) {
+                    booking.setBookingStatus(BookingStatus.REJECTED);
+                } else {
+                    booking.setBookingStatus(BookingStatus.ACCEPTED);
+                }
+                return bookingStore.insertBookings(List.of(booking)).getFirst();
+            });
+            onSettled(PendingBooking.of(newBooking), newBooking.getBookingStatus());
+            return newBooking;
+        });
+    }
+
+    public List<BookingResponse> createNewBookings(List<BookingRequest> bookingRequests) {
+        return createNewBookings(bookingRequests, null);
+    }
+
+    public List<BookingResponse> createNewBookings(List<BookingRequest> bookingRequests, String clientId) {
+        return createTimer.record(() -> createBatch(bookingRequests, clientId));
+    }
+
+    private List<BookingResponse> createBatch(List<BookingRequest> bookingRequests, String clientId) {
+        BookingResponse[] responses = new BookingResponse[bookingRequests.size()];
+        List<Booking> bookings = new ArrayList<>(bookingRequests.size());
+        List<Integer> positions = new ArrayList<>(bookingRequests.size());
+        for (int i = 0; i < bookingRequests.size(); i++) {
+            BookingRequest request = bookingRequests.get(i);
+            if (request == null) {
+                responses[i] = BookingResponse.failed("Booking request is missing");
+                continue;
+            }
+            try {
+                bookings.add(newBooking(request.roomId(), request.startTime(), request.endTime()));
+                positions.add(i);
+            } catch (InvalidBookingException e) {
+                responses[i] = BookingResponse.failed(e.getMessage());
+            }
+        }
+        if (!bookings.isEmpty()) {
+            List<Long> roomIds = bookings.stream().map(booking -> booking.getRoom().getRoomId()).toList();
+            if (!bookingQueue.reserveAll(roomIds)) {
+                throw new BookingQueueFullException("Too many bookings waiting to be settled");
+            }
+            List<Long> bookingIds;
+            try {
+                bookingIds = bookingJournal.isEnabled() ? bookingJournal.append(bookings) : insertAndQueue(bookings, () -> {}, clientId);
+            } catch (RuntimeException e) {
+                bookingQueue.releaseAll(roomIds);
+                throw e;
+            }
+            for (int i = 0; i < bookingIds.size(); i++) {
+                responses[positions.get(i)] = new BookingResponse(bookingIds.get(i));
+            }
+        }
+        return List.of(responses);
+    }
+
+    // bookings created for a recurring booking are stored in the same transaction as the rule that generated them,
+    // which beforeInsert saves, so an occurrence is never stored without the rule recording it or stored twice
+    public List<Long> createBookings(List<Booking> bookings, Runnable beforeInsert) {
+        return createTimer.record(() -> {
+            List<Long> roomIds = bookings.stream().map(booking -> booking.getRoom().getRoomId()).toList();
+            if (!bookingQueue.reserveAll(roomIds)) {
+                throw new BookingQueueFullException("Too many bookings waiting to be settled");
+            }
+            try {
+                return insertAndQueue(bookings, beforeInsert, null);
+            } catch (RuntimeException e) {
+                bookingQueue.releaseAll(roomIds);
+                throw e;
+            }
+        });
+    }
+
+    private List<Long> insertAndQueue(List<Booking> bookings, Runnable beforeInsert, String clientId) {
+        List<Long> roomIds = bookings.stream().map(booking -> booking.getRoom().getRoomId()).toList();
+        List<Booking> newBookings = insert(roomIds, status -> {
+            beforeInsert.run();
+            return bookingStore.insertBookings(bookings);
+        });
+        newBookings.forEach(booking -> bookingCache.add(BookingView.of(booking)));
+        bookingQueue.addAll(newBookings.stream().map(PendingBooking::of).toList(), clientId);
+        return newBookings.stream().map(Booking::getBookingId).toList();
+    }
+
+    private Booking newBooking(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
         validateBookingTime(startTime, endTime);
-        Booking newBooking = transactionTemplate.execute(status -> {
-            if (!roomRepository.existsById(roomId)) {
+        Room room = roomRegistry.find(roomId).orElseThrow(() -> new InvalidBookingException("Room not found"));
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setStartTime(startTime.truncatedTo(ChronoUnit.SECONDS));
+        booking.setEndTime(endTime.truncatedTo(ChronoUnit.SECONDS));
+        booking.setBookingStatus(BookingStatus.PENDING);
+        return booking;
+    }
+
+    // a room deleted since the registry was last loaded only shows up as a foreign key violation; any other
+    // violation is a bug rather than a bad request, so it is passed on
+    private <T> T insert(List<Long> roomIds, TransactionCallback<T> insert) {
+        try {
+            return transactionTemplate.execute(insert);
+        } catch (DataIntegrityViolationException e) {
+            roomRegistry.refresh();
+            if (roomIds.stream().anyMatch(roomId -> roomRegistry.find(roomId).isEmpty())) {
                 throw new InvalidBookingException("Room not found");
             }
-            Booking booking = new Booking();
-            booking.setRoom(roomRepository.getReferenceById(roomId));
-            booking.setStartTime(startTime);
-            booking.setEndTime(endTime);
-            booking.setBookingStatus(BookingStatus.PENDING);
-            return bookingRepository.save(booking);
+            throw e;
+        }
+    }
+
+    public void settlePendingBooking(PendingBooking booking) {
+        settleTimer.record(() -> roomLocks.withLock(booking.roomId(), () -> {
+            settleLocked(List.of(booking));
+            return null;
+        }));
+    }
+
+    public void settlePendingBookings(List<PendingBooking> bookings) {
+        List<Long> roomIds = bookings.stream().map(PendingBooking::roomId).toList();
+        settleTimer.record(() -> roomLocks.withLocks(roomIds, () -> {
+            settleLocked(bookings);
+            return null;
+        }));
+    }
+
+    private void settleLocked(List<PendingBooking> bookings) {
+        List<PendingBooking> accepted = new ArrayList<>(bookings.size());
+        List<PendingBooking> rejected = new ArrayList<>();
+        int[][] updateCounts = transactionTemplate.execute(status -> {
+            clusterSettlement.lockRooms(bookings.stream().map(PendingBooking::roomId).toList());
+            for (PendingBooking booking : bookings) {
+                if (hasConflict(booking.roomId(), booking.startTime(), booking.endTime()) ||
+                        accepted.stream().anyMatch(other -> overlaps(other, booking))) {
+                    rejected.add(booking);
+                } else {
+                    accepted.add(booking);
+                }
+            }
+            return new int[][]{
+                    bookingStore.updatePendingStatuses(bookingIds(accepted), BookingStatus.ACCEPTED),
+                    bookingStore.updatePendingStatuses(bookingIds(rejected), BookingStatus.REJECTED)
+            };
         });
-        bookingQueue.add(newBooking);
-        return newBooking.getBookingId();
+        notifySettled(accepted, updateCounts[0], BookingStatus.ACCEPTED);
+        notifySettled(rejected, updateCounts[1], BookingStatus.REJECTED);
     }
 
-    @Transactional
-    public void settlePendingBooking(Booking booking) {
-        if (booking.getBookingStatus() != BookingStatus.PENDING) {
-            return;
+    private void notifySettled(List<PendingBooking> bookings, int[] updateCounts, BookingStatus status) {
+        for (int i = 0; i < bookings.size(); i++) {
+            if (updateCounts[i] > 0) {
+                onSettled(bookings.get(i), status);
+            }
+        }
+    }
+
+    private static List<Long> bookingIds(List<PendingBooking> bookings) {
+        return bookings.stream().map(PendingBooking::bookingId).toList();
+    }
+
+    public Optional<CompletableFuture<BookingStatus>> awaitSettlement(Long bookingId) {
+        CompletableFuture<BookingStatus> settlement = settlementNotifier.register(bookingId);
+        Optional<BookingView> booking = getBooking(bookingId);
+        if (booking.isEmpty()) {
+            settlement.cancel(false);
+            return Optional.empty();
         }
-        if (bookingRepository.existsConflictingBookings(booking.getRoom().getRoomId(), booking.getStartTime(), booking.getEndTime())) {
-            booking.setBookingStatus(BookingStatus.REJECTED);
-        } else {
-            booking.setBookingStatus(BookingStatus.ACCEPTED);
+        if (booking.get().bookingStatus() != BookingStatus.PENDING) {
+            settlement.complete(booking.get().bookingStatus());
         }
-        bookingRepository.save(booking);
+        return Optional.of(settlement);
+    }
+
+    private boolean hasConflict(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        long start = System.nanoTime();
+        boolean conflict = acceptedBookingIndex.hasConflict(roomId, startTime, endTime) ||
+                clusterSettlement.hasConflict(roomId, startTime, endTime);
+        conflictCheckTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return conflict;
     }
 
-    private void validateBookingTime(LocalDateTime startTime, LocalDateTime endTime) {
+    private void onSettled(PendingBooking booking, BookingStatus status) {
+        settledCounters.get(status).increment();
+        if (status == BookingStatus.ACCEPTED) {
+            acceptedBookingIndex.add(booking.roomId(), booking.startTime(), booking.endTime());
+        }
+        bookingCache.settled(view(booking, status));
+        settlementNotifier.settled(booking.bookingId(), status);
+    }
+
+    private boolean overlaps(PendingBooking a, PendingBooking b) {
+        return a.roomId() == b.roomId() &&
+                a.startTime().isBefore(b.endTime()) && a.endTime().isAfter(b.startTime());
+    }
+
+    static void validateBookingTime(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            throw new InvalidBookingException("Start time and end time are required");
+        }
+
         if (startTime.isAfter(endTime)) {
             throw new InvalidBookingException("Start time cannot be after end time");
         }
@@ -80,14 +360,14 @@ public class BookingService {
 
     }
 
-    private boolean isWithinBusinessHours(LocalDateTime dateTime) {
+    private static boolean isWithinBusinessHours(LocalDateTime dateTime) {
         LocalTime startBusinessHours = LocalTime.of(8, 0);
         LocalTime endBusinessHours = LocalTime.of(18, 0);
         LocalTime time = dateTime.toLocalTime();
         return time.isAfter(startBusinessHours) && time.isBefore(endBusinessHours);
     }
 
-    private boolean isWeekday(LocalDateTime dateTime) {
+    private static boolean isWeekday(LocalDateTime dateTime) {
         DayOfWeek day = dateTime.getDayOfWeek();
         return !day.equals(DayOfWeek.SATURDAY) && !day.equals(DayOfWeek.SUNDAY);
     }
@@ -0,0 +1,40 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.BookingStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class BookingSettlementNotifier {
+
+    private final Map<Long, Set<CompletableFuture<BookingStatus>>> waiting = new ConcurrentHashMap<>();
+
+    public CompletableFuture<BookingStatus> register(Long bookingId) {
+        CompletableFuture<BookingStatus> settlement = new CompletableFuture<>();
+        waiting.compute(bookingId, (id, settlements) -> {
+            Set<CompletableFuture<BookingStatus>> registered = settlements != null ? settlements : ConcurrentHashMap.newKeySet();
+            registered.add(settlement);
+            return registered;
+        });
+        settlement.whenComplete((status, e) -> unregister(bookingId, settlement));
+        return settlement;
+    }
+
+    public void settled(Long bookingId, BookingStatus status) {
+        Set<CompletableFuture<BookingStatus>> settlements = waiting.remove(bookingId);
+        if (settlements != null) {
+            settlements.forEach(settlement -> settlement.complete(status));
+        }
+    }
+
+    private void unregister(Long bookingId, CompletableFuture<BookingStatus> settlement) {
+        waiting.computeIfPresent(bookingId, (id, settlements) -> {
+            settlements.remove(settlement);
+            return settlements.isEmpty() ? null : settlements;
+        });
+    }
+}
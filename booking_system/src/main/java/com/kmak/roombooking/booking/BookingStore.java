@@ -0,0 +1,30 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// the statements run for every booking on its way from request to settlement. They work on ids and rows rather than
+// managed entities; BookingRepository stays in place for views and everything off that path
+public interface BookingStore {
+
+    // assigns the booking ids and request times of the given bookings and stores them with their current status
+    List<Booking> insertBookings(List<Booking> bookings);
+
+    // stores bookings with ids assigned beforehand, skipping those already in the bookings table or the archive
+    int[] insertPendingBookings(List<PendingBookingRow> bookings);
+
+    boolean existsConflictingBooking(long roomId, LocalDateTime startTime, LocalDateTime endTime);
+
+    int[] updatePendingStatuses(List<Long> bookingIds, BookingStatus status);
+
+    long countPendingBookings();
+
+    List<PendingBookingRow> findPendingBookingsAfter(LocalDateTime requestTime, long bookingId, int limit);
+
+    int archiveSettledBookings(LocalDateTime endedBefore, int limit);
+
+}
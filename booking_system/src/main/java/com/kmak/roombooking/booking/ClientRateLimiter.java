@@ -0,0 +1,97 @@
+package com.kmak.roombooking.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket per client for one endpoint. It runs before the request body is read and before the controller
+// opens a transaction, so a client over its limit costs a map lookup and a CAS.
+public class ClientRateLimiter implements HandlerInterceptor {
+
+    private static final Duration IDLE_BUCKET_EXPIRY = Duration.ofMinutes(10);
+
+    private final long tokenNanos;
+    private final long burstNanos;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter rejectedCounter;
+
+    public ClientRateLimiter(MeterRegistry meterRegistry, String endpoint, double perSecond, int burst, long maxClients) {
+        if (perSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("booking.rate-limit." + endpoint + " needs a positive per-second rate and burst");
+        }
+        this.tokenNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / perSecond));
+        this.burstNanos = tokenNanos * burst;
+        // an evicted bucket comes back full, which only lets a client that was quiet for a while burst again
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(IDLE_BUCKET_EXPIRY)
+                .build();
+        this.rejectedCounter = Counter.builder("booking.rate-limit.rejected")
+                .description("Requests refused with 429 because the client exceeded its rate limit")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(clientKey(request), key -> new TokenBucket(now)).tryAcquire(now, tokenNanos, burstNanos);
+        if (waitNanos == 0) {
+            return true;
+        }
+        rejectedCounter.increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ceilSeconds(waitNanos))));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests from this client");
+        return false;
+    }
+
+    // the header is trusted as it is for queue scheduling, so deployments exposed to untrusted clients should set it
+    // at the gateway; without it each remote address gets its own bucket
+    private static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(BookingController.CLIENT_ID_HEADER);
+        return clientId == null || clientId.isBlank() ? request.getRemoteAddr() : clientId;
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    // Kept as the time the bucket is next empty rather than a token count (GCRA), so taking a token is one CAS
+    // on one long and refilling needs no timer or second field.
+    private static final class TokenBucket {
+
+        private final AtomicLong emptyAt;
+
+        private TokenBucket(long now) {
+            this.emptyAt = new AtomicLong(now);
+        }
+
+        private long tryAcquire(long now, long tokenNanos, long burstNanos) {
+            while (true) {
+                long current = emptyAt.get();
+                long next = Math.max(current, now) + tokenNanos;
+                long waitNanos = next - now - burstNanos;
+                if (waitNanos > 0) {
+                    return waitNanos;
+                }
+                if (emptyAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
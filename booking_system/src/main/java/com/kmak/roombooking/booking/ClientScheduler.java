@@ -0,0 +1,76 @@
+package com.kmak.roombooking.booking;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Deficit round robin over the clients with bookings waiting in one lane, so a client that submits thousands of
+// bookings at once only delays the others by one quantum per turn. A booking is only handed out once every booking
+// published before it for the same room has been, because the first booking to be settled wins the room.
+// Only the consumer thread of the lane uses it.
+final class ClientScheduler {
+
+    private final int quantum;
+    private final Map<QueueClient, ClientBookings> clients = new HashMap<>();
+    private final ArrayDeque<ClientBookings> active = new ArrayDeque<>();
+    private final Map<Long, ArrayDeque<Long>> roomPositions = new HashMap<>();
+    private volatile int size;
+
+    ClientScheduler(int quantum) {
+        if (quantum < 1) {
+            throw new IllegalArgumentException("booking.queue.client-quantum must be at least 1");
+        }
+        this.quantum = quantum;
+    }
+
+    void add(QueuedBooking booking) {
+        ClientBookings client = clients.computeIfAbsent(booking.client(), key -> new ClientBookings());
+        if (client.bookings.isEmpty()) {
+            client.deficit = quantum;
+            active.addLast(client);
+        }
+        client.bookings.addLast(booking);
+        roomPositions.computeIfAbsent(booking.booking().roomId(), roomId -> new ArrayDeque<>()).addLast(booking.position());
+        size++;
+    }
+
+    // the oldest waiting booking is always first for its client and its room, so some client can always be served
+    QueuedBooking next() {
+        while (!active.isEmpty()) {
+            ClientBookings client = active.peekFirst();
+            QueuedBooking booking = client.bookings.peekFirst();
+            ArrayDeque<Long> positions = roomPositions.get(booking.booking().roomId());
+            if (client.deficit > 0 && positions.peekFirst() == booking.position()) {
+                client.deficit--;
+                client.bookings.pollFirst();
+                positions.pollFirst();
+                if (positions.isEmpty()) {
+                    roomPositions.remove(booking.booking().roomId());
+                }
+                if (client.bookings.isEmpty()) {
+                    active.pollFirst();
+                    clients.remove(booking.client());
+                }
+                size--;
+                return booking;
+            }
+            // the client used up its quantum or waits for another client's earlier booking of the same room
+            active.addLast(active.pollFirst());
+            client.deficit = quantum;
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static final class ClientBookings {
+        private final ArrayDeque<QueuedBooking> bookings = new ArrayDeque<>();
+        private int deficit;
+    }
+}
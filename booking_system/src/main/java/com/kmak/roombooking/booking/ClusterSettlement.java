@@ -0,0 +1,46 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.TimeSlot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class ClusterSettlement {
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingStore bookingStore;
+    private final boolean enabled;
+
+    public ClusterSettlement(RoomRepository roomRepository, BookingRepository bookingRepository, BookingStore bookingStore,
+                             @Value("${booking.settlement.cluster:false}") boolean enabled) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingStore = bookingStore;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // other instances accept bookings this one never sees, so the room rows stay locked until the settling
+    // transaction commits and conflicts are checked against the database instead of only the local index
+    public void lockRooms(Collection<Long> roomIds) {
+        if (enabled) {
+            roomRepository.lockAllById(roomIds.stream().distinct().sorted().toList());
+        }
+    }
+
+    public boolean hasConflict(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        return enabled && bookingStore.existsConflictingBooking(roomId, startTime, endTime);
+    }
+
+    public List<TimeSlot> acceptedSlots(Long roomId, LocalDateTime from, LocalDateTime to) {
+        return enabled ? bookingRepository.findAcceptedSlots(roomId, from, to) : List.of();
+    }
+}
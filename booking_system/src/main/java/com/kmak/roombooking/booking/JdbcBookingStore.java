@@ -0,0 +1,145 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// every batch is sent through one prepared statement, and the statements are fixed strings so the driver can reuse
+// their parsed form across calls. Nothing is loaded into a persistence context, merged or dirty checked.
+@Repository
+public class JdbcBookingStore implements BookingStore {
+
+    private static final String INSERT_BOOKING =
+            "INSERT INTO bookings (booking_id, room_id, start_time, end_time, request_time, booking_status, recurring_booking_id) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_PENDING_BOOKING =
+            "INSERT INTO bookings (booking_id, room_id, start_time, end_time, request_time, booking_status) " +
+                    "SELECT CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), 'PENDING' " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM bookings WHERE booking_id = ?) " +
+                    "AND NOT EXISTS (SELECT 1 FROM bookings_archive WHERE booking_id = ?)";
+
+    private static final String SELECT_CONFLICTING_BOOKING =
+            "SELECT 1 FROM bookings WHERE room_id = ? AND booking_status = 'ACCEPTED' AND start_time < ? AND end_time > ? LIMIT 1";
+
+    private static final String UPDATE_PENDING_STATUS =
+            "UPDATE bookings SET booking_status = ? WHERE booking_id = ? AND booking_status = 'PENDING'";
+
+    private static final String COUNT_PENDING_BOOKINGS = "SELECT COUNT(*) FROM bookings WHERE booking_status = 'PENDING'";
+
+    private static final String SELECT_PENDING_BOOKINGS =
+            "SELECT booking_id, room_id, start_time, end_time, request_time FROM bookings WHERE booking_status = 'PENDING' " +
+                    "AND (request_time > ? OR (request_time = ? AND booking_id > ?)) ORDER BY request_time, booking_id LIMIT ?";
+
+    private static final String SELECT_ENDED_SETTLED_BOOKINGS =
+            "SELECT booking_id FROM bookings WHERE end_time < ? AND booking_status <> 'PENDING' ORDER BY end_time LIMIT ?";
+
+    private static final String COPY_TO_ARCHIVE =
+            "INSERT INTO bookings_archive (booking_id, room_id, start_time, end_time, request_time, booking_status, recurring_booking_id) " +
+                    "SELECT booking_id, room_id, start_time, end_time, request_time, booking_status, recurring_booking_id FROM bookings WHERE booking_id IN (%s)";
+
+    private static final String DELETE_BOOKINGS = "DELETE FROM bookings WHERE booking_id IN (%s)";
+
+    private static final RowMapper<PendingBookingRow> PENDING_BOOKING_ROW = (rs, rowNum) -> new PendingBookingRow(
+            rs.getLong(1), rs.getLong(2),
+            rs.getObject(3, LocalDateTime.class), rs.getObject(4, LocalDateTime.class), rs.getObject(5, LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingIdGenerator bookingIdGenerator;
+
+    public JdbcBookingStore(JdbcTemplate jdbcTemplate, BookingIdGenerator bookingIdGenerator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingIdGenerator = bookingIdGenerator;
+    }
+
+    @Override
+    public List<Booking> insertBookings(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return bookings;
+        }
+        LocalDateTime requestTime = LocalDateTime.now();
+        for (Booking booking : bookings) {
+            booking.setBookingId(bookingIdGenerator.nextId());
+            booking.setRequestTime(requestTime);
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOKING, bookings, bookings.size(), (ps, booking) -> {
+            ps.setLong(1, booking.getBookingId());
+            ps.setLong(2, booking.getRoom().getRoomId());
+            ps.setTimestamp(3, Timestamp.valueOf(booking.getStartTime()));
+            ps.setTimestamp(4, Timestamp.valueOf(booking.getEndTime()));
+            ps.setTimestamp(5, Timestamp.valueOf(booking.getRequestTime()));
+            ps.setString(6, booking.getBookingStatus().name());
+            ps.setObject(7, booking.getRecurringBookingId(), Types.BIGINT);
+        });
+        return bookings;
+    }
+
+    @Override
+    public int[] insertPendingBookings(List<PendingBookingRow> bookings) {
+        if (bookings.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_PENDING_BOOKING, bookings, bookings.size(), (ps, booking) -> {
+            ps.setLong(1, booking.bookingId());
+            ps.setLong(2, booking.roomId());
+            ps.setTimestamp(3, Timestamp.valueOf(booking.startTime()));
+            ps.setTimestamp(4, Timestamp.valueOf(booking.endTime()));
+            ps.setTimestamp(5, Timestamp.valueOf(booking.requestTime()));
+            ps.setLong(6, booking.bookingId());
+            ps.setLong(7, booking.bookingId());
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    @Override
+    public boolean existsConflictingBooking(long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(SELECT_CONFLICTING_BOOKING, ResultSet::next,
+                roomId, Timestamp.valueOf(endTime), Timestamp.valueOf(startTime)));
+    }
+
+    @Override
+    public int[] updatePendingStatuses(List<Long> bookingIds, BookingStatus status) {
+        if (bookingIds.isEmpty()) {
+            return new int[0];
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_PENDING_STATUS, bookingIds, bookingIds.size(), (ps, bookingId) -> {
+            ps.setString(1, status.name());
+            ps.setLong(2, bookingId);
+        });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    @Override
+    public long countPendingBookings() {
+        return jdbcTemplate.queryForObject(COUNT_PENDING_BOOKINGS, Long.class);
+    }
+
+    @Override
+    public List<PendingBookingRow> findPendingBookingsAfter(LocalDateTime requestTime, long bookingId, int limit) {
+        Timestamp timestamp = Timestamp.valueOf(requestTime);
+        return jdbcTemplate.query(SELECT_PENDING_BOOKINGS, PENDING_BOOKING_ROW, timestamp, timestamp, bookingId, limit);
+    }
+
+    @Override
+    public int archiveSettledBookings(LocalDateTime endedBefore, int limit) {
+        List<Long> bookingIds = jdbcTemplate.queryForList(SELECT_ENDED_SETTLED_BOOKINGS, Long.class, Timestamp.valueOf(endedBefore), limit);
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(",", Collections.nCopies(bookingIds.size(), "?"));
+        Object[] args = bookingIds.toArray();
+        jdbcTemplate.update(COPY_TO_ARCHIVE.formatted(placeholders), args);
+        return jdbcTemplate.update(DELETE_BOOKINGS.formatted(placeholders), args);
+    }
+}
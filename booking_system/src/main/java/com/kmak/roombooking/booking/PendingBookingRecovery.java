@@ -0,0 +1,117 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Component
+public class PendingBookingRecovery {
+
+    private static final LocalDateTime FIRST_REQUEST_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final long RETRY_DELAY_MS = 1000;
+    private static final long PROGRESS_LOG_INTERVAL = 10_000;
+    // request times are stored with less precision than the clock, so the catch-up scan starts a little earlier
+    private static final Duration CATCH_UP_MARGIN = Duration.ofSeconds(1);
+
+    private final Logger logger = LoggerFactory.getLogger(PendingBookingRecovery.class);
+    private final BookingStore bookingStore;
+    private final BookingQueue bookingQueue;
+    private final int pageSize;
+    private final Counter recoveredCounter;
+    private LocalDateTime recoveryStartTime;
+    private LocalDateTime lastRequestTime = FIRST_REQUEST_TIME;
+    private long lastBookingId;
+    private long recovered;
+
+    public PendingBookingRecovery(BookingStore bookingStore, BookingQueue bookingQueue, MeterRegistry meterRegistry,
+                                  @Value("${booking.recovery.page-size:1000}") int pageSize) {
+        this.bookingStore = bookingStore;
+        this.bookingQueue = bookingQueue;
+        this.pageSize = pageSize;
+        this.recoveredCounter = Counter.builder("booking.recovery.recovered")
+                .description("Pending bookings queued by startup recovery")
+                .register(meterRegistry);
+        Gauge.builder("booking.recovery.active", bookingQueue, queue -> queue.isRecovering() ? 1 : 0)
+                .description("1 while pending bookings from before startup are still being queued")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        recoveryStartTime = LocalDateTime.now();
+        bookingQueue.startRecovery();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofPlatform().name("booking-recovery").daemon().start(() -> {
+            try {
+                recover();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Failed to recover pending bookings", e);
+            } finally {
+                bookingQueue.finishRecovery();
+            }
+        });
+    }
+
+    public void recover() throws InterruptedException {
+        long pending = bookingStore.countPendingBookings();
+        logger.info("Recovering {} pending bookings", pending);
+        queueRemainingPages(pending);
+        bookingQueue.finishRecovery();
+        // bookings created while recovering were left for this scan. Their request time is taken before they commit,
+        // so one can commit behind the point the backlog scan already passed; scanning again from the start of
+        // recovery finds them all, and the backlog bookings it queues a second time only settle once
+        if (recoveryStartTime.minus(CATCH_UP_MARGIN).isBefore(lastRequestTime)) {
+            lastRequestTime = recoveryStartTime.minus(CATCH_UP_MARGIN);
+            lastBookingId = 0;
+        }
+        queueRemainingPages(pending);
+        logger.info("Recovered {} pending bookings", recovered);
+    }
+
+    private void queueRemainingPages(long pending) throws InterruptedException {
+        List<PendingBookingRow> page;
+        do {
+            page = nextPage();
+            for (PendingBookingRow row : page) {
+                bookingQueue.put(row.toPendingBooking());
+                lastRequestTime = row.requestTime();
+                lastBookingId = row.bookingId();
+            }
+            long before = recovered;
+            recovered += page.size();
+            recoveredCounter.increment(page.size());
+            if (recovered / PROGRESS_LOG_INTERVAL > before / PROGRESS_LOG_INTERVAL) {
+                logger.info("Recovered {} of {} pending bookings", recovered, pending);
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private List<PendingBookingRow> nextPage() throws InterruptedException {
+        while (true) {
+            try {
+                return bookingStore.findPendingBookingsAfter(lastRequestTime, lastBookingId, pageSize);
+            } catch (DataAccessException e) {
+                logger.warn("Failed to read pending bookings, retrying", e);
+                Thread.sleep(RETRY_DELAY_MS);
+            }
+        }
+    }
+}
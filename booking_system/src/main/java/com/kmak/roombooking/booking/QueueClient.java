@@ -0,0 +1,30 @@
+package com.kmak.roombooking.booking;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// a caller identified by the X-Client-Id header, with its share of the queued bookings across all lanes
+final class QueueClient {
+
+    private final String name;
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Timer waitTimer;
+
+    QueueClient(String name, Timer waitTimer) {
+        this.name = name;
+        this.waitTimer = waitTimer;
+    }
+
+    String name() {
+        return name;
+    }
+
+    AtomicInteger depth() {
+        return depth;
+    }
+
+    Timer waitTimer() {
+        return waitTimer;
+    }
+}
@@ -0,0 +1,7 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.PendingBooking;
+
+// position is the order in which the booking was published to its lane
+record QueuedBooking(PendingBooking booking, QueueClient client, long position, long enqueuedAt) {
+}
@@ -0,0 +1,55 @@
+package com.kmak.roombooking.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long maxClients;
+    private final double newPerSecond;
+    private final int newBurst;
+    private final double batchPerSecond;
+    private final int batchBurst;
+    private final double recurringPerSecond;
+    private final int recurringBurst;
+
+    public RateLimitConfig(MeterRegistry meterRegistry,
+                           @Value("${booking.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${booking.rate-limit.max-clients:10000}") long maxClients,
+                           @Value("${booking.rate-limit.new.per-second:200}") double newPerSecond,
+                           @Value("${booking.rate-limit.new.burst:400}") int newBurst,
+                           @Value("${booking.rate-limit.batch.per-second:10}") double batchPerSecond,
+                           @Value("${booking.rate-limit.batch.burst:20}") int batchBurst,
+                           @Value("${booking.rate-limit.recurring.per-second:2}") double recurringPerSecond,
+                           @Value("${booking.rate-limit.recurring.burst:10}") int recurringBurst) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxClients = maxClients;
+        this.newPerSecond = newPerSecond;
+        this.newBurst = newBurst;
+        this.batchPerSecond = batchPerSecond;
+        this.batchBurst = batchBurst;
+        this.recurringPerSecond = recurringPerSecond;
+        this.recurringBurst = recurringBurst;
+    }
+
+    // only the endpoints that write bookings are limited; reads are served from the cache and the index
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        registry.addInterceptor(new ClientRateLimiter(meterRegistry, "new", newPerSecond, newBurst, maxClients))
+                .addPathPatterns("/api/bookings/new");
+        registry.addInterceptor(new ClientRateLimiter(meterRegistry, "batch", batchPerSecond, batchBurst, maxClients))
+                .addPathPatterns("/api/bookings/batch");
+        registry.addInterceptor(new ClientRateLimiter(meterRegistry, "recurring", recurringPerSecond, recurringBurst, maxClients))
+                .addPathPatterns("/api/bookings/recurring");
+    }
+}
@@ -0,0 +1,13 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.RecurringBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecurringBookingRepository extends JpaRepository<RecurringBooking, Long> {
+
+    List<RecurringBooking> findByCompleteFalse();
+}
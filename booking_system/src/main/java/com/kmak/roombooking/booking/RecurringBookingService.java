@@ -0,0 +1,207 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingView;
+import com.kmak.roombooking.booking.model.RecurringBooking;
+import com.kmak.roombooking.booking.model.RecurringBookingRequest;
+import com.kmak.roombooking.booking.model.RecurringBookingResponse;
+import com.kmak.roombooking.booking.model.RecurringOccurrence;
+import com.kmak.roombooking.booking.model.Room;
+import com.kmak.roombooking.booking.model.TimeSlot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class RecurringBookingService {
+
+    private final Logger logger = LoggerFactory.getLogger(RecurringBookingService.class);
+    private final RecurringBookingRepository recurringBookingRepository;
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archivedBookingRepository;
+    private final BookingService bookingService;
+    private final RoomRegistry roomRegistry;
+    private final AcceptedBookingIndex acceptedBookingIndex;
+    private final ClusterSettlement clusterSettlement;
+    private final long horizonDays;
+    private final int maxOccurrences;
+    private final Counter expandedCounter;
+
+    public RecurringBookingService(RecurringBookingRepository recurringBookingRepository, BookingRepository bookingRepository,
+                                   ArchivedBookingRepository archivedBookingRepository, BookingService bookingService,
+                                   RoomRegistry roomRegistry, AcceptedBookingIndex acceptedBookingIndex,
+                                   ClusterSettlement clusterSettlement, MeterRegistry meterRegistry,
+                                   @Value("${booking.recurring.horizon-days:28}") long horizonDays,
+                                   @Value("${booking.recurring.max-occurrences:260}") int maxOccurrences) {
+        this.recurringBookingRepository = recurringBookingRepository;
+        this.bookingRepository = bookingRepository;
+        this.archivedBookingRepository = archivedBookingRepository;
+        this.bookingService = bookingService;
+        this.roomRegistry = roomRegistry;
+        this.acceptedBookingIndex = acceptedBookingIndex;
+        this.clusterSettlement = clusterSettlement;
+        this.horizonDays = horizonDays;
+        this.maxOccurrences = maxOccurrences;
+        this.expandedCounter = Counter.builder("booking.recurring.expanded")
+                .description("Occurrences of recurring bookings booked as they came within the booking horizon")
+                .register(meterRegistry);
+    }
+
+    public RecurringBookingResponse createRecurringBooking(RecurringBookingRequest request) {
+        RecurringBooking recurringBooking = newRecurringBooking(request);
+        List<TimeSlot> occurrences = new ArrayList<>();
+        for (int i = 0; recurringBooking.hasOccurrence(i); i++) {
+            if (i == maxOccurrences) {
+                throw new InvalidBookingException("A recurring booking cannot have more than " + maxOccurrences + " occurrences");
+            }
+            occurrences.add(recurringBooking.occurrence(i));
+        }
+        boolean[] available = available(recurringBooking.getRoom().getRoomId(), occurrences);
+
+        LocalDateTime horizon = LocalDateTime.now().plusDays(horizonDays);
+        int expanded = (int) occurrences.stream().takeWhile(occurrence -> occurrence.startTime().isBefore(horizon)).count();
+        // the first occurrence is booked straight away even if it lies beyond the horizon, so the response holds a booking
+        expanded = Math.max(expanded, 1);
+        recurringBooking.setExpandedOccurrences(expanded);
+        recurringBooking.setComplete(expanded == occurrences.size());
+        List<Long> bookingIds = expand(recurringBooking, occurrences.subList(0, expanded));
+
+        List<RecurringOccurrence> responses = new ArrayList<>(occurrences.size());
+        for (int i = 0; i < occurrences.size(); i++) {
+            TimeSlot occurrence = occurrences.get(i);
+            responses.add(new RecurringOccurrence(occurrence.startTime(), occurrence.endTime(), available[i],
+                    i < bookingIds.size() ? bookingIds.get(i) : null));
+        }
+        return new RecurringBookingResponse(recurringBooking.getRecurringBookingId(), responses);
+    }
+
+    private RecurringBooking newRecurringBooking(RecurringBookingRequest request) {
+        BookingService.validateBookingTime(request.startTime(), request.endTime());
+        int intervalWeeks = request.intervalWeeks() != null ? request.intervalWeeks() : 1;
+        if (intervalWeeks < 1) {
+            throw new InvalidBookingException("The interval must be at least one week");
+        }
+        if (request.occurrences() == null && request.until() == null) {
+            throw new InvalidBookingException("Either the number of occurrences or an end date is required");
+        }
+        if (request.occurrences() != null && request.occurrences() < 1) {
+            throw new InvalidBookingException("A recurring booking needs at least one occurrence");
+        }
+        if (request.until() != null && request.until().isBefore(request.startTime().toLocalDate())) {
+            throw new InvalidBookingException("The end date cannot be before the first occurrence");
+        }
+        if (Duration.between(request.startTime(), request.endTime()).compareTo(Duration.ofDays(7L * intervalWeeks)) > 0) {
+            throw new InvalidBookingException("Occurrences of a recurring booking cannot overlap");
+        }
+        Room room = roomRegistry.find(request.roomId()).orElseThrow(() -> new InvalidBookingException("Room not found"));
+        RecurringBooking recurringBooking = new RecurringBooking();
+        recurringBooking.setRoom(room);
+        recurringBooking.setStartTime(request.startTime().truncatedTo(ChronoUnit.SECONDS));
+        recurringBooking.setEndTime(request.endTime().truncatedTo(ChronoUnit.SECONDS));
+        recurringBooking.setIntervalWeeks(intervalWeeks);
+        recurringBooking.setOccurrences(request.occurrences());
+        recurringBooking.setUntilDate(request.until());
+        return recurringBooking;
+    }
+
+    // the accepted bookings of the whole span of the rule are fetched once, and as occurrences follow each other
+    // without overlapping, one sweep over both sorted lists finds the occurrences that overlap an accepted booking
+    private boolean[] available(Long roomId, List<TimeSlot> occurrences) {
+        LocalDateTime from = occurrences.getFirst().startTime();
+        LocalDateTime to = occurrences.getLast().endTime();
+        List<TimeSlot> busy = new ArrayList<>(acceptedBookingIndex.busySlots(roomId, from, to));
+        busy.addAll(clusterSettlement.acceptedSlots(roomId, from, to));
+        busy.sort(Comparator.comparing(TimeSlot::startTime));
+
+        boolean[] available = new boolean[occurrences.size()];
+        LocalDateTime latestEnd = LocalDateTime.MIN;
+        int next = 0;
+        for (int i = 0; i < occurrences.size(); i++) {
+            TimeSlot occurrence = occurrences.get(i);
+            while (next < busy.size() && busy.get(next).startTime().isBefore(occurrence.endTime())) {
+                LocalDateTime endTime = busy.get(next++).endTime();
+                if (endTime.isAfter(latestEnd)) {
+                    latestEnd = endTime;
+                }
+            }
+            available[i] = !latestEnd.isAfter(occurrence.startTime());
+        }
+        return available;
+    }
+
+    private List<Long> expand(RecurringBooking recurringBooking, List<TimeSlot> occurrences) {
+        List<Booking> bookings = occurrences.stream().map(occurrence -> {
+            Booking booking = new Booking();
+            booking.setRoom(recurringBooking.getRoom());
+            booking.setStartTime(occurrence.startTime());
+            booking.setEndTime(occurrence.endTime());
+            booking.setBookingStatus(BookingStatus.PENDING);
+            return booking;
+        }).toList();
+        return bookingService.createBookings(bookings, () -> {
+            Long recurringBookingId = recurringBookingRepository.save(recurringBooking).getRecurringBookingId();
+            bookings.forEach(booking -> booking.setRecurringBookingId(recurringBookingId));
+        });
+    }
+
+    // occurrences are only booked once they come within the horizon, so a long running rule costs a few rows at a time
+    // instead of all of them up front. With several instances the version of the rule makes sure only one of them
+    // books each occurrence.
+    @Scheduled(fixedDelayString = "${booking.recurring.expand-interval-ms:3600000}", initialDelayString = "${booking.recurring.expand-interval-ms:3600000}")
+    public void expandRecurringBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusDays(horizonDays);
+        for (RecurringBooking recurringBooking : recurringBookingRepository.findByCompleteFalse()) {
+            int from = recurringBooking.getExpandedOccurrences();
+            int to = from;
+            List<TimeSlot> occurrences = new ArrayList<>();
+            while (recurringBooking.hasOccurrence(to) && recurringBooking.occurrence(to).startTime().isBefore(horizon)) {
+                TimeSlot occurrence = recurringBooking.occurrence(to++);
+                // occurrences that went by while the application was stopped are skipped
+                if (occurrence.startTime().isAfter(now)) {
+                    occurrences.add(occurrence);
+                }
+            }
+            if (to == from) {
+                continue;
+            }
+            recurringBooking.setExpandedOccurrences(to);
+            recurringBooking.setComplete(!recurringBooking.hasOccurrence(to));
+            try {
+                expand(recurringBooking, occurrences);
+                expandedCounter.increment(occurrences.size());
+            } catch (BookingQueueFullException e) {
+                logger.warn("Settlement queue is full, occurrences of recurring booking {} are booked at the next run", recurringBooking.getRecurringBookingId());
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                logger.debug("Occurrences of recurring booking {} were booked by another instance", recurringBooking.getRecurringBookingId());
+            } catch (InvalidBookingException e) {
+                logger.warn("Could not book occurrences of recurring booking {}: {}", recurringBooking.getRecurringBookingId(), e.getMessage());
+            }
+        }
+    }
+
+    public Optional<List<BookingView>> getOccurrences(Long recurringBookingId) {
+        if (!recurringBookingRepository.existsById(recurringBookingId)) {
+            return Optional.empty();
+        }
+        List<BookingView> bookings = new ArrayList<>(archivedBookingRepository.findViewsByRecurringBookingId(recurringBookingId));
+        bookings.addAll(bookingRepository.findViewsByRecurringBookingId(recurringBookingId));
+        bookings.sort(Comparator.comparing(BookingView::startTime));
+        return Optional.of(bookings);
+    }
+}
@@ -0,0 +1,83 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.FreeRoom;
+import com.kmak.roombooking.booking.model.RoomAvailability;
+import com.kmak.roombooking.booking.model.TimeSlot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class RoomAvailabilityService {
+
+    private final RoomRegistry roomRegistry;
+    private final AcceptedBookingIndex acceptedBookingIndex;
+    private final int maxRangeDays;
+
+    public RoomAvailabilityService(RoomRegistry roomRegistry, AcceptedBookingIndex acceptedBookingIndex,
+                                   @Value("${booking.availability.max-range-days:31}") int maxRangeDays) {
+        this.roomRegistry = roomRegistry;
+        this.acceptedBookingIndex = acceptedBookingIndex;
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    public Optional<RoomAvailability> getAvailability(Long roomId, LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        return roomRegistry.find(roomId).map(room -> availability(roomId, from, to));
+    }
+
+    public List<RoomAvailability> getAvailability(Collection<Long> roomIds, LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        Collection<Long> requestedRoomIds = roomIds == null || roomIds.isEmpty() ? roomRegistry.roomIds() : roomIds;
+        return requestedRoomIds.stream()
+                .filter(roomId -> roomRegistry.find(roomId).isPresent())
+                .sorted()
+                .map(roomId -> availability(roomId, from, to))
+                .toList();
+    }
+
+    public List<FreeRoom> findFreeRooms(LocalDateTime from, LocalDateTime to, int limit) {
+        validateRange(from, to);
+        if (limit < 1) {
+            throw new InvalidBookingException("Limit must be at least 1");
+        }
+        return acceptedBookingIndex.findFreeRooms(roomRegistry.roomIds(), from, to).stream()
+                .sorted()
+                .limit(limit)
+                .flatMap(roomId -> roomRegistry.find(roomId).stream())
+                .map(room -> new FreeRoom(room.getRoomId(), room.getRoomName()))
+                .toList();
+    }
+
+    private RoomAvailability availability(Long roomId, LocalDateTime from, LocalDateTime to) {
+        List<TimeSlot> freeSlots = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        for (TimeSlot busy : acceptedBookingIndex.busySlots(roomId, from, to)) {
+            if (busy.startTime().isAfter(freeFrom)) {
+                freeSlots.add(new TimeSlot(freeFrom, busy.startTime()));
+            }
+            if (busy.endTime().isAfter(freeFrom)) {
+                freeFrom = busy.endTime();
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            freeSlots.add(new TimeSlot(freeFrom, to));
+        }
+        return new RoomAvailability(roomId, freeSlots);
+    }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidBookingException("From must be before to");
+        }
+        // the free room search keeps a slot bitmap per room and day, so the range bounds what one request allocates
+        if (to.isAfter(from.plusDays(maxRangeDays))) {
+            throw new InvalidBookingException("The range cannot be longer than " + maxRangeDays + " days");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.FreeRoom;
+import com.kmak.roombooking.booking.model.RoomAvailability;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/rooms")
+public class RoomController {
+
+    private final RoomAvailabilityService roomAvailabilityService;
+
+    public RoomController(RoomAvailabilityService roomAvailabilityService) {
+        this.roomAvailabilityService = roomAvailabilityService;
+    }
+
+    @GetMapping("/{roomId}/availability")
+    public RoomAvailability getAvailability(@PathVariable Long roomId,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return roomAvailabilityService.getAvailability(roomId, from, to)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Room not found"));
+    }
+
+    @GetMapping("/availability")
+    public List<RoomAvailability> getAvailability(@RequestParam(required = false) List<Long> roomIds,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return roomAvailabilityService.getAvailability(roomIds, from, to);
+    }
+
+    @GetMapping("/free")
+    public List<FreeRoom> findFreeRooms(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        return roomAvailabilityService.findFreeRooms(from, to, limit);
+    }
+
+    @ExceptionHandler(InvalidBookingException.class)
+    public ResponseEntity<String> handleInvalidBooking(InvalidBookingException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.kmak.roombooking.booking;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+public class RoomLocks {
+
+    private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public <T> T withLock(Long roomId, Supplier<T> action) {
+        return withLocks(List.of(roomId), action);
+    }
+
+    public <T> T withLocks(Collection<Long> roomIds, Supplier<T> action) {
+        // rooms are always locked in id order so two callers can never wait on each other
+        List<ReentrantLock> held = roomIds.stream()
+                .distinct()
+                .sorted()
+                .map(roomId -> locks.computeIfAbsent(roomId, id -> new ReentrantLock()))
+                .toList();
+        held.forEach(ReentrantLock::lock);
+        try {
+            return action.get();
+        } finally {
+            held.reversed().forEach(ReentrantLock::unlock);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.kmak.roombooking.booking;
+
+import com.kmak.roombooking.booking.model.Room;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class RoomRegistry {
+
+    private final RoomRepository roomRepository;
+    private volatile Map<Long, Room> rooms = Map.of();
+
+    public RoomRegistry(RoomRepository roomRepository) {
+        this.roomRepository = roomRepository;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${booking.rooms.refresh-interval-ms:60000}", initialDelayString = "${booking.rooms.refresh-interval-ms:60000}")
+    public void refresh() {
+        rooms = roomRepository.findAll().stream().collect(Collectors.toUnmodifiableMap(Room::getRoomId, Function.identity()));
+    }
+
+    public Collection<Long> roomIds() {
+        return rooms.keySet();
+    }
+
+    public Optional<Room> find(Long roomId) {
+        return roomId == null ? Optional.empty() : Optional.ofNullable(rooms.get(roomId));
+    }
+
+}
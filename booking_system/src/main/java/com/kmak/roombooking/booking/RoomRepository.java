@@ -1,9 +1,20 @@
 package com.kmak.roombooking.booking;
 
 import com.kmak.roombooking.booking.model.Room;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.roomId IN :roomIds ORDER BY r.roomId")
+    List<Room> lockAllById(@Param("roomIds") Collection<Long> roomIds);
 }
@@ -0,0 +1,121 @@
+package com.kmak.roombooking.booking;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+final class RoomSlots {
+
+    static final int SLOT_SECONDS = 15 * 60;
+    static final int SLOTS_PER_DAY = 24 * 60 * 60 / SLOT_SECONDS;
+    private static final int WORDS_PER_DAY = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    enum Match {FREE, BUSY, UNCERTAIN}
+
+    private final Map<LocalDate, Map<Long, AtomicLongArray>> days = new ConcurrentHashMap<>();
+
+    // a booking marks every slot it touches, so a slot that is only partly booked reads as busy
+    void add(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        for (DayRange range : split(startTime, endTime)) {
+            long[] touched = new long[WORDS_PER_DAY];
+            setSlots(touched, range.firstSecond / SLOT_SECONDS, ceilSlot(range.endSecond));
+            AtomicLongArray slots = days.computeIfAbsent(range.day, day -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(roomId, id -> new AtomicLongArray(WORDS_PER_DAY));
+            for (int word = 0; word < WORDS_PER_DAY; word++) {
+                if (touched[word] != 0) {
+                    slots.getAndAccumulate(word, touched[word], (current, added) -> current | added);
+                }
+            }
+        }
+    }
+
+    void removeDaysBefore(LocalDate day) {
+        days.keySet().removeIf(bookedDay -> bookedDay.isBefore(day));
+    }
+
+    Query query(LocalDateTime from, LocalDateTime to) {
+        List<DayRange> ranges = split(from, to);
+        List<Map<Long, AtomicLongArray>> rooms = new ArrayList<>(ranges.size());
+        long[][] covered = new long[ranges.size()][WORDS_PER_DAY];
+        long[][] partial = new long[ranges.size()][WORDS_PER_DAY];
+        for (int i = 0; i < ranges.size(); i++) {
+            DayRange range = ranges.get(i);
+            rooms.add(days.getOrDefault(range.day, Map.of()));
+            int firstCovered = ceilSlot(range.firstSecond);
+            int endCovered = range.endSecond / SLOT_SECONDS;
+            setSlots(covered[i], firstCovered, endCovered);
+            setSlots(partial[i], range.firstSecond / SLOT_SECONDS, Math.min(firstCovered, ceilSlot(range.endSecond)));
+            setSlots(partial[i], Math.max(endCovered, firstCovered), ceilSlot(range.endSecond));
+        }
+        return new Query(rooms, covered, partial);
+    }
+
+    // a booked slot the whole range covers is a certain conflict; a booked slot at either end of the range may
+    // belong to a booking that ends or starts within that slot, so those rooms need an exact check
+    static final class Query {
+
+        private final List<Map<Long, AtomicLongArray>> rooms;
+        private final long[][] covered;
+        private final long[][] partial;
+
+        private Query(List<Map<Long, AtomicLongArray>> rooms, long[][] covered, long[][] partial) {
+            this.rooms = rooms;
+            this.covered = covered;
+            this.partial = partial;
+        }
+
+        Match match(Long roomId) {
+            Match match = Match.FREE;
+            for (int i = 0; i < rooms.size(); i++) {
+                AtomicLongArray slots = rooms.get(i).get(roomId);
+                if (slots == null) {
+                    continue;
+                }
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    long booked = slots.get(word);
+                    if ((booked & covered[i][word]) != 0) {
+                        return Match.BUSY;
+                    }
+                    if ((booked & partial[i][word]) != 0) {
+                        match = Match.UNCERTAIN;
+                    }
+                }
+            }
+            return match;
+        }
+    }
+
+    private record DayRange(LocalDate day, int firstSecond, int endSecond) {
+    }
+
+    private static List<DayRange> split(LocalDateTime from, LocalDateTime to) {
+        List<DayRange> ranges = new ArrayList<>(1);
+        for (LocalDate day = from.toLocalDate(); day.atStartOfDay().isBefore(to); day = day.plusDays(1)) {
+            int firstSecond = day.equals(from.toLocalDate()) ? from.toLocalTime().toSecondOfDay() : 0;
+            int endSecond = day.equals(to.toLocalDate()) ? ceilSecond(to) : SECONDS_PER_DAY;
+            if (firstSecond < endSecond) {
+                ranges.add(new DayRange(day, firstSecond, endSecond));
+            }
+        }
+        return ranges;
+    }
+
+    private static int ceilSecond(LocalDateTime time) {
+        return time.toLocalTime().toSecondOfDay() + (time.getNano() > 0 ? 1 : 0);
+    }
+
+    private static int ceilSlot(int second) {
+        return (second + SLOT_SECONDS - 1) / SLOT_SECONDS;
+    }
+
+    private static void setSlots(long[] words, int fromSlot, int toSlot) {
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            words[slot / Long.SIZE] |= 1L << (slot % Long.SIZE);
+        }
+    }
+}
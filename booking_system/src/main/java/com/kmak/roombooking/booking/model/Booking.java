@@ -10,13 +10,20 @@ import java.util.Objects;
 @Table(
         name = "bookings",
         indexes = {
-                @Index(name = "idx_room_status_time", columnList = "room_id, booking_status, start_time, end_time")
+                @Index(name = "idx_room_status_time", columnList = "room_id, booking_status, start_time, end_time"),
+                @Index(name = "idx_status_request_time", columnList = "booking_status, request_time, booking_id"),
+                @Index(name = "idx_end_time", columnList = "end_time"),
+                @Index(name = "idx_recurring_booking", columnList = "recurring_booking_id")
         }
 )
 public class Booking {
 
+    public static final String ID_SEQUENCE = "bookings_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "booking_id")
     private Long bookingId;
 
@@ -38,6 +45,9 @@ public class Booking {
     @Column(name = "booking_status", nullable = false)
     private BookingStatus bookingStatus;
 
+    @Column(name = "recurring_booking_id")
+    private Long recurringBookingId;
+
     public Long getBookingId() {
         return bookingId;
     }
@@ -86,6 +96,14 @@ public class Booking {
         this.bookingStatus = status;
     }
 
+    public Long getRecurringBookingId() {
+        return recurringBookingId;
+    }
+
+    public void setRecurringBookingId(Long recurringBookingId) {
+        this.recurringBookingId = recurringBookingId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,7 +1,15 @@
 package com.kmak.roombooking.booking.model;
 
-public record BookingResponse(long bookingId, String message) {
+public record BookingResponse(Long bookingId, String message, BookingStatus bookingStatus) {
     public BookingResponse(long bookingId) {
-        this(bookingId, "Booking submitted");
+        this(bookingId, "Booking submitted", BookingStatus.PENDING);
+    }
+
+    public static BookingResponse settled(long bookingId, BookingStatus bookingStatus) {
+        return new BookingResponse(bookingId, bookingStatus == BookingStatus.ACCEPTED ? "Booking accepted" : "Booking rejected", bookingStatus);
+    }
+
+    public static BookingResponse failed(String message) {
+        return new BookingResponse(null, message, null);
     }
 }
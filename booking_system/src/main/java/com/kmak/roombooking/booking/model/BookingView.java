@@ -0,0 +1,14 @@
+package com.kmak.roombooking.booking.model;
+
+import java.time.LocalDateTime;
+
+public record BookingView(Long bookingId, Long roomId, String roomName, LocalDateTime startTime, LocalDateTime endTime,
+                          BookingStatus bookingStatus) {
+
+    public static BookingView of(Booking booking) {
+        Room room = booking.getRoom();
+        return new BookingView(booking.getBookingId(), room == null ? null : room.getRoomId(),
+                room == null ? null : room.getRoomName(), booking.getStartTime(), booking.getEndTime(),
+                booking.getBookingStatus());
+    }
+}
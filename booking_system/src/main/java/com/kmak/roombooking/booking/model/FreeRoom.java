@@ -0,0 +1,4 @@
+package com.kmak.roombooking.booking.model;
+
+public record FreeRoom(Long roomId, String roomName) {
+}
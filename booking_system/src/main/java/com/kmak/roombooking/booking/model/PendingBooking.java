@@ -0,0 +1,10 @@
+package com.kmak.roombooking.booking.model;
+
+import java.time.LocalDateTime;
+
+public record PendingBooking(long bookingId, long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+
+    public static PendingBooking of(Booking booking) {
+        return new PendingBooking(booking.getBookingId(), booking.getRoom().getRoomId(), booking.getStartTime(), booking.getEndTime());
+    }
+}
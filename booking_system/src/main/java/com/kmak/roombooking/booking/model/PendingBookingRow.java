@@ -0,0 +1,11 @@
+package com.kmak.roombooking.booking.model;
+
+import java.time.LocalDateTime;
+
+public record PendingBookingRow(long bookingId, long roomId, LocalDateTime startTime, LocalDateTime endTime,
+                                LocalDateTime requestTime) {
+
+    public PendingBooking toPendingBooking() {
+        return new PendingBooking(bookingId, roomId, startTime, endTime);
+    }
+}
@@ -0,0 +1,162 @@
+package com.kmak.roombooking.booking.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "recurring_bookings")
+public class RecurringBooking {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "recurring_booking_id")
+    private Long recurringBookingId;
+
+    @ManyToOne()
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "interval_weeks", nullable = false)
+    private int intervalWeeks;
+
+    @Column(name = "occurrences")
+    private Integer occurrences;
+
+    @Column(name = "until_date")
+    private LocalDate untilDate;
+
+    @Column(name = "expanded_occurrences", nullable = false)
+    private int expandedOccurrences;
+
+    @Column(name = "complete", nullable = false)
+    private boolean complete;
+
+    @CreationTimestamp
+    @Column(name = "request_time", updatable = false)
+    private LocalDateTime requestTime;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public TimeSlot occurrence(int index) {
+        long weeks = (long) index * intervalWeeks;
+        return new TimeSlot(startTime.plusWeeks(weeks), endTime.plusWeeks(weeks));
+    }
+
+    public boolean hasOccurrence(int index) {
+        return (occurrences == null || index < occurrences) &&
+                (untilDate == null || !occurrence(index).startTime().toLocalDate().isAfter(untilDate));
+    }
+
+    public Long getRecurringBookingId() {
+        return recurringBookingId;
+    }
+
+    public void setRecurringBookingId(Long recurringBookingId) {
+        this.recurringBookingId = recurringBookingId;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getIntervalWeeks() {
+        return intervalWeeks;
+    }
+
+    public void setIntervalWeeks(int intervalWeeks) {
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    public Integer getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(Integer occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public LocalDate getUntilDate() {
+        return untilDate;
+    }
+
+    public void setUntilDate(LocalDate untilDate) {
+        this.untilDate = untilDate;
+    }
+
+    public int getExpandedOccurrences() {
+        return expandedOccurrences;
+    }
+
+    public void setExpandedOccurrences(int expandedOccurrences) {
+        this.expandedOccurrences = expandedOccurrences;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public LocalDateTime getRequestTime() {
+        return requestTime;
+    }
+
+    public void setRequestTime(LocalDateTime requestTime) {
+        this.requestTime = requestTime;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecurringBooking that = (RecurringBooking) o;
+        return Objects.equals(recurringBookingId, that.recurringBookingId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(recurringBookingId);
+    }
+}
@@ -0,0 +1,10 @@
+package com.kmak.roombooking.booking.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// startTime and endTime are the first occurrence, repeated every intervalWeeks (1 when omitted)
+// until occurrences have been booked or the date until has passed, whichever comes first
+public record RecurringBookingRequest(Long roomId, LocalDateTime startTime, LocalDateTime endTime,
+                                      Integer intervalWeeks, Integer occurrences, LocalDate until) {
+}
@@ -0,0 +1,7 @@
+package com.kmak.roombooking.booking.model;
+
+import java.time.LocalDateTime;
+
+// bookingId is null for occurrences beyond the booking horizon, which are booked later
+public record RecurringOccurrence(LocalDateTime startTime, LocalDateTime endTime, boolean available, Long bookingId) {
+}
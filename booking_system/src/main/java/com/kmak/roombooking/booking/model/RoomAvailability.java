@@ -0,0 +1,6 @@
+package com.kmak.roombooking.booking.model;
+
+import java.util.List;
+
+public record RoomAvailability(Long roomId, List<TimeSlot> freeSlots) {
+}
@@ -0,0 +1,6 @@
+package com.kmak.roombooking.booking.model;
+
+import java.time.LocalDateTime;
+
+public record TimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -0,0 +1,117 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.AcceptedBookingIndex;
+import com.kmak.roombooking.booking.BookingRepository;
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.Room;
+import com.kmak.roombooking.booking.model.TimeSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AcceptedBookingIndexTest {
+
+    private final LocalDateTime day = LocalDateTime.of(2099, 11, 25, 0, 0);
+    private AcceptedBookingIndex acceptedBookingIndex;
+
+    @BeforeEach
+    void setUp() {
+        Room room = new Room();
+        room.setRoomId(1L);
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setStartTime(day.withHour(9));
+        booking.setEndTime(day.withHour(10));
+        booking.setBookingStatus(BookingStatus.ACCEPTED);
+
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findAllAcceptedBookingsEndingAfter(any(LocalDateTime.class))).thenReturn(List.of(booking));
+        acceptedBookingIndex = new AcceptedBookingIndex(bookingRepository);
+        acceptedBookingIndex.init();
+    }
+
+    @Test
+    void testHasConflict_LoadedFromRepository() {
+        assertTrue(acceptedBookingIndex.hasConflict(1L, day.withHour(9).plusMinutes(30), day.withHour(10).plusMinutes(30)));
+        assertTrue(acceptedBookingIndex.hasConflict(1L, day.withHour(8), day.withHour(11)));
+        assertFalse(acceptedBookingIndex.hasConflict(1L, day.withHour(10), day.withHour(11)));
+        assertFalse(acceptedBookingIndex.hasConflict(1L, day.withHour(8), day.withHour(9)));
+        assertFalse(acceptedBookingIndex.hasConflict(2L, day.withHour(9), day.withHour(10)));
+    }
+
+    @Test
+    void testRemoveEndedBefore() {
+        acceptedBookingIndex.add(1L, day.withHour(12), day.withHour(14));
+
+        assertEquals(1, acceptedBookingIndex.removeEndedBefore(day.withHour(13)));
+
+        assertFalse(acceptedBookingIndex.hasConflict(1L, day.withHour(9), day.withHour(10)));
+        assertTrue(acceptedBookingIndex.hasConflict(1L, day.withHour(13), day.withHour(15)));
+    }
+
+    @Test
+    void testHasConflict_AfterAdd() {
+        acceptedBookingIndex.add(1L, day.withHour(12), day.withHour(14));
+
+        assertTrue(acceptedBookingIndex.hasConflict(1L, day.withHour(13), day.withHour(15)));
+        assertTrue(acceptedBookingIndex.hasConflict(1L, day.withHour(11), day.withHour(12).plusMinutes(1)));
+        assertFalse(acceptedBookingIndex.hasConflict(1L, day.withHour(10), day.withHour(12)));
+        assertFalse(acceptedBookingIndex.hasConflict(1L, day.withHour(14), day.withHour(15)));
+    }
+
+    @Test
+    void testFindFreeRooms() {
+        acceptedBookingIndex.add(2L, day.withHour(9).plusMinutes(10), day.withHour(9).plusMinutes(20));
+
+        assertEquals(List.of(1L, 2L, 3L), acceptedBookingIndex.findFreeRooms(List.of(1L, 2L, 3L), day.withHour(10), day.withHour(11)));
+        assertEquals(List.of(2L, 3L), acceptedBookingIndex.findFreeRooms(List.of(1L, 2L, 3L), day.withHour(9).plusMinutes(30), day.withHour(10)));
+        assertEquals(List.of(2L, 3L), acceptedBookingIndex.findFreeRooms(List.of(1L, 2L, 3L), day.withHour(9).plusMinutes(20), day.withHour(10)));
+        assertEquals(List.of(3L), acceptedBookingIndex.findFreeRooms(List.of(1L, 2L, 3L), day.withHour(9).plusMinutes(19), day.withHour(10)));
+        assertEquals(List.of(2L, 3L), acceptedBookingIndex.findFreeRooms(List.of(1L, 2L, 3L), day.minusHours(1), day.withHour(9).plusMinutes(5)));
+    }
+
+    @Test
+    void testFindFreeRooms_MatchesConflictCheck() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 500; i++) {
+            long roomId = random.nextLong(1, 21);
+            LocalDateTime startTime = day.plusMinutes(random.nextInt(3 * 24 * 60));
+            LocalDateTime endTime = startTime.plusMinutes(random.nextInt(1, 240));
+            if (!acceptedBookingIndex.hasConflict(roomId, startTime, endTime)) {
+                acceptedBookingIndex.add(roomId, startTime, endTime);
+            }
+        }
+        List<Long> roomIds = LongStream.rangeClosed(1, 20).boxed().toList();
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime from = day.plusMinutes(random.nextInt(3 * 24 * 60)).plusSeconds(random.nextInt(60));
+            LocalDateTime to = from.plusMinutes(random.nextInt(1, 24 * 60));
+            List<Long> expected = roomIds.stream().filter(roomId -> !acceptedBookingIndex.hasConflict(roomId, from, to)).toList();
+            assertEquals(expected, acceptedBookingIndex.findFreeRooms(roomIds, from, to), from + " - " + to);
+        }
+    }
+
+    @Test
+    void testBusySlots() {
+        acceptedBookingIndex.add(1L, day.withHour(12), day.withHour(14));
+        acceptedBookingIndex.add(1L, day.withHour(16), day.withHour(17));
+
+        assertEquals(List.of(
+                new TimeSlot(day.withHour(9), day.withHour(10)),
+                new TimeSlot(day.withHour(12), day.withHour(14))
+        ), acceptedBookingIndex.busySlots(1L, day.withHour(9).plusMinutes(30), day.withHour(16)));
+        assertEquals(List.of(), acceptedBookingIndex.busySlots(1L, day.withHour(10), day.withHour(12)));
+        assertEquals(List.of(), acceptedBookingIndex.busySlots(2L, day.withHour(8), day.withHour(18)));
+    }
+}
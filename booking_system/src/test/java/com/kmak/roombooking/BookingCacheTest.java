@@ -0,0 +1,42 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingCache;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingCacheTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingCache bookingCache = new BookingCache(meterRegistry, 100, 60);
+
+    @Test
+    void testAdd_DoesNotReplaceSettledBooking() {
+        bookingCache.settled(booking(BookingStatus.ACCEPTED));
+        bookingCache.add(booking(BookingStatus.PENDING));
+
+        assertEquals(BookingStatus.ACCEPTED, bookingCache.find(1L).orElseThrow().bookingStatus());
+    }
+
+    @Test
+    void testFind_RecordsHitsAndMisses() {
+        assertTrue(bookingCache.find(1L).isEmpty());
+        bookingCache.add(booking(BookingStatus.PENDING));
+        assertTrue(bookingCache.find(1L).isPresent());
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "bookings").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "bookings").tag("result", "miss").functionCounter().count());
+    }
+
+    private BookingView booking(BookingStatus status) {
+        return new BookingView(1L, 1L, "Room 1", START_TIME, START_TIME.plusHours(1), status);
+    }
+}
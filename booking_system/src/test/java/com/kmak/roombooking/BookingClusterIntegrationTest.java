@@ -0,0 +1,83 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingService;
+import com.kmak.roombooking.booking.RoomRegistry;
+import com.kmak.roombooking.booking.model.BookingRequest;
+import com.kmak.roombooking.booking.model.BookingResponse;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingClusterIntegrationTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testOverlappingBookingsOnTwoInstances_OnlyOneAccepted() throws Exception {
+        assertEquals(1, acceptedOnTwoInstances(true));
+    }
+
+    // without cluster settlement each instance only checks its own accepted bookings, which is what the flag is for
+    @Test
+    void testOverlappingBookingsOnTwoInstances_BothAcceptedWithoutCluster() throws Exception {
+        assertEquals(2, acceptedOnTwoInstances(false));
+    }
+
+    private int acceptedOnTwoInstances(boolean cluster) throws Exception {
+        String url = "jdbc:h2:file:" + directory.resolve("app_db").toAbsolutePath();
+        try (ConfigurableApplicationContext first = start(url, cluster); ConfigurableApplicationContext second = start(url, cluster)) {
+            first.getBean(JdbcTemplate.class).update("INSERT INTO rooms (room_name) VALUES ('Room 1')");
+            Long roomId = first.getBean(JdbcTemplate.class).queryForObject("SELECT MAX(room_id) FROM rooms", Long.class);
+            first.getBean(RoomRegistry.class).refresh();
+            second.getBean(RoomRegistry.class).refresh();
+
+            LocalDateTime startTime = LocalDateTime.of(2099, 11, 23, 9, 0);
+            List<BookingRequest> requests = new ArrayList<>();
+            for (int minutes = 0; minutes < 50; minutes += 5) {
+                requests.add(new BookingRequest(roomId, startTime.plusMinutes(minutes), startTime.plusMinutes(minutes).plusHours(1)));
+            }
+            List<BookingService> services = List.of(first.getBean(BookingService.class), second.getBean(BookingService.class));
+            List<CompletableFuture<List<BookingStatus>>> settled = services.stream()
+                    .map(service -> CompletableFuture.supplyAsync(() -> settle(service, requests)))
+                    .toList();
+
+            List<BookingStatus> statuses = new ArrayList<>();
+            for (CompletableFuture<List<BookingStatus>> instance : settled) {
+                statuses.addAll(instance.get(30, TimeUnit.SECONDS));
+            }
+            int accepted = Collections.frequency(statuses, BookingStatus.ACCEPTED);
+            assertEquals(accepted, first.getBean(JdbcTemplate.class)
+                    .queryForObject("SELECT COUNT(*) FROM bookings WHERE room_id = ? AND booking_status = 'ACCEPTED'", Integer.class, roomId));
+            return accepted;
+        }
+    }
+
+    private ConfigurableApplicationContext start(String url, boolean cluster) {
+        return new SpringApplicationBuilder(BookingApplication.class).run(
+                "--spring.datasource.url=" + url,
+                "--spring.main.web-application-type=none",
+                "--spring.jpa.show-sql=false",
+                "--booking.settlement.cluster=" + cluster);
+    }
+
+    private List<BookingStatus> settle(BookingService service, List<BookingRequest> requests) {
+        return service.createNewBookings(requests).stream()
+                .map(BookingResponse::bookingId)
+                .map(bookingId -> service.awaitSettlement(bookingId).orElseThrow().join())
+                .toList();
+    }
+}
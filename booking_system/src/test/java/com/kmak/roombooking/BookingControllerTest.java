@@ -2,29 +2,46 @@ package com.kmak.roombooking;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.kmak.roombooking.booking.BookingController;
+import com.kmak.roombooking.booking.BookingQueueFullException;
 import com.kmak.roombooking.booking.BookingService;
 import com.kmak.roombooking.booking.InvalidBookingException;
+import com.kmak.roombooking.booking.RecurringBookingService;
 import com.kmak.roombooking.booking.model.Booking;
 import com.kmak.roombooking.booking.model.BookingRequest;
 import com.kmak.roombooking.booking.model.BookingResponse;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingStatusResponse;
+import com.kmak.roombooking.booking.model.BookingView;
+import com.kmak.roombooking.booking.model.RecurringBookingRequest;
+import com.kmak.roombooking.booking.model.RecurringBookingResponse;
+import com.kmak.roombooking.booking.model.RecurringOccurrence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
+@Import(SimpleMeterRegistry.class)
 public class BookingControllerTest {
 
     @Autowired
@@ -33,14 +50,17 @@ public class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private RecurringBookingService recurringBookingService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     @Test
     void testGetBooking_Success() throws Exception {
         Long bookingId = 1L;
-        Booking booking = new Booking();
-        booking.setBookingId(bookingId);
+        LocalDateTime startTime = LocalDateTime.of(2099, 11, 23, 9, 0);
+        BookingView booking = new BookingView(bookingId, 1L, "Room 1", startTime, startTime.plusHours(1), BookingStatus.PENDING);
 
         when(bookingService.getBooking(bookingId)).thenReturn(Optional.of(booking));
 
@@ -67,7 +87,7 @@ public class BookingControllerTest {
         BookingRequest bookingRequest = new BookingRequest(roomId, startTime, endTime);
 
         Long bookingId = 1L;
-        when(bookingService.createNewBooking(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(bookingId);
+        when(bookingService.createNewBooking(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class), any())).thenReturn(bookingId);
 
         mockMvc.perform(post("/api/bookings/new")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -76,6 +96,26 @@ public class BookingControllerTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(new BookingResponse(bookingId))));
     }
 
+    @Test
+    void testNewBooking_Sync() throws Exception {
+        Long roomId = 1L;
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(9);
+        LocalDateTime endTime = LocalDateTime.now().plusDays(1).withHour(10);
+        BookingRequest bookingRequest = new BookingRequest(roomId, startTime, endTime);
+
+        Booking booking = new Booking();
+        booking.setBookingId(1L);
+        booking.setBookingStatus(BookingStatus.ACCEPTED);
+        when(bookingService.createAndSettleBooking(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(booking);
+
+        mockMvc.perform(post("/api/bookings/new")
+                        .param("sync", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(objectMapper.writeValueAsString(BookingResponse.settled(1L, BookingStatus.ACCEPTED))));
+    }
+
     @Test
     void testNewBooking_InvalidBooking() throws Exception {
         Long roomId = 1L;
@@ -83,7 +123,7 @@ public class BookingControllerTest {
         LocalDateTime endTime = LocalDateTime.now().plusDays(1).withHour(10);
         BookingRequest bookingRequest = new BookingRequest(roomId, startTime, endTime);
 
-        when(bookingService.createNewBooking(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(bookingService.createNewBooking(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class), any()))
                 .thenThrow(new InvalidBookingException("Invalid booking"));
 
         mockMvc.perform(post("/api/bookings/new")
@@ -92,4 +132,103 @@ public class BookingControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().string("Invalid booking"));
     }
+
+    @Test
+    void testNewBooking_QueueFull() throws Exception {
+        BookingRequest bookingRequest = new BookingRequest(1L, LocalDateTime.now().plusDays(1).withHour(9), LocalDateTime.now().plusDays(1).withHour(10));
+
+        when(bookingService.createNewBooking(any(Long.class), any(LocalDateTime.class), any(LocalDateTime.class), any()))
+                .thenThrow(new BookingQueueFullException("Too many bookings waiting to be settled"));
+
+        mockMvc.perform(post("/api/bookings/new")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string("Too many bookings waiting to be settled"));
+    }
+
+    @Test
+    void testNewBookings_Success() throws Exception {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(9);
+        LocalDateTime endTime = LocalDateTime.now().plusDays(1).withHour(10);
+        List<BookingRequest> bookingRequests = List.of(
+                new BookingRequest(1L, startTime, endTime),
+                new BookingRequest(99L, startTime, endTime)
+        );
+        List<BookingResponse> bookingResponses = List.of(new BookingResponse(1L), BookingResponse.failed("Room not found"));
+
+        when(bookingService.createNewBookings(bookingRequests, null)).thenReturn(bookingResponses);
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequests)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(bookingResponses)));
+    }
+
+    @Test
+    void testNewBookings_PassesClientId() throws Exception {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(9);
+        List<BookingRequest> bookingRequests = List.of(new BookingRequest(1L, startTime, startTime.plusHours(1)));
+        List<BookingResponse> bookingResponses = List.of(new BookingResponse(1L));
+
+        when(bookingService.createNewBookings(bookingRequests, "tenant-a")).thenReturn(bookingResponses);
+
+        mockMvc.perform(post("/api/bookings/batch")
+                        .header("X-Client-Id", "tenant-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingRequests)))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(bookingResponses)));
+    }
+
+    @Test
+    void testAwaitSettlement_Settled() throws Exception {
+        Long bookingId = 1L;
+        when(bookingService.awaitSettlement(bookingId)).thenReturn(Optional.of(CompletableFuture.completedFuture(BookingStatus.ACCEPTED)));
+
+        MvcResult result = mockMvc.perform(get("/api/bookings/{bookingId}/settlement", bookingId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(new BookingStatusResponse(bookingId, BookingStatus.ACCEPTED))));
+    }
+
+    @Test
+    void testAwaitSettlement_NotFound() throws Exception {
+        long bookingId = 1L;
+        when(bookingService.awaitSettlement(bookingId)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/bookings/{bookingId}/settlement", bookingId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testNewRecurringBooking_Success() throws Exception {
+        LocalDateTime startTime = LocalDateTime.of(2099, 11, 23, 9, 0);
+        RecurringBookingRequest request = new RecurringBookingRequest(1L, startTime, startTime.plusHours(1), 1, 2, null);
+        RecurringBookingResponse response = new RecurringBookingResponse(7L, List.of(
+                new RecurringOccurrence(startTime, startTime.plusHours(1), true, 1L),
+                new RecurringOccurrence(startTime.plusWeeks(1), startTime.plusWeeks(1).plusHours(1), false, null)
+        ));
+
+        when(recurringBookingService.createRecurringBooking(request)).thenReturn(response);
+
+        mockMvc.perform(post("/api/bookings/recurring")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(objectMapper.writeValueAsString(response)));
+    }
+
+    @Test
+    void testGetRecurringBooking_NotFound() throws Exception {
+        when(recurringBookingService.getOccurrences(7L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/bookings/recurring/{recurringBookingId}", 7L))
+                .andExpect(status().isNotFound());
+    }
 }
@@ -0,0 +1,81 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingIdGenerator;
+import com.kmak.roombooking.booking.BookingStore;
+import com.kmak.roombooking.booking.JdbcBookingStore;
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.Room;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// a real pool smaller than the number of writers, so an id fetch that needs a second connection would time out
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-id-generator;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({JdbcBookingStore.class, BookingIdGenerator.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingIdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 100;
+
+    @Autowired
+    private BookingStore bookingStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testInsertBookings_ConcurrentCreatesWithSmallPool() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("INSERT INTO rooms (room_name) VALUES ('Room 1')");
+        Room room = new Room();
+        room.setRoomId(jdbcTemplate.queryForObject("SELECT MAX(room_id) FROM rooms", Long.class));
+        LocalDateTime startTime = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+        List<Future<?>> writers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int thread = 0; thread < THREADS; thread++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                        Booking booking = new Booking();
+                        booking.setRoom(room);
+                        booking.setStartTime(startTime);
+                        booking.setEndTime(startTime.plusHours(1));
+                        booking.setBookingStatus(BookingStatus.PENDING);
+                        transactionTemplate.executeWithoutResult(status -> bookingStore.insertBookings(List.of(booking)));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        }
+
+        assertEquals(THREADS * BOOKINGS_PER_THREAD, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT booking_id) FROM bookings", Long.class));
+    }
+}
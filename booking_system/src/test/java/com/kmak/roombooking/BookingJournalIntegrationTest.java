@@ -0,0 +1,48 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingService;
+import com.kmak.roombooking.booking.RoomRegistry;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journal;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "booking.journal.enabled=true",
+        "booking.journal.path=target/journal-test/booking.journal",
+        "booking.journal.size-mb=1"
+})
+class BookingJournalIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoomRegistry roomRegistry;
+
+    @Test
+    void testCreateNewBooking_JournaledThenStoredAndSettled() throws Exception {
+        jdbcTemplate.update("INSERT INTO rooms (room_name) VALUES ('Room 1')");
+        Long roomId = jdbcTemplate.queryForObject("SELECT MAX(room_id) FROM rooms", Long.class);
+        roomRegistry.refresh();
+        LocalDateTime startTime = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+        Long bookingId = bookingService.createNewBooking(roomId, startTime, startTime.plusHours(1));
+        Long otherBookingId = bookingService.createNewBooking(roomId, startTime, startTime.plusHours(2));
+
+        assertEquals(BookingStatus.ACCEPTED, bookingService.awaitSettlement(bookingId).orElseThrow().get(10, TimeUnit.SECONDS));
+        assertEquals(BookingStatus.REJECTED, bookingService.awaitSettlement(otherBookingId).orElseThrow().get(10, TimeUnit.SECONDS));
+        assertEquals(startTime, bookingService.getBooking(bookingId).orElseThrow().startTime());
+    }
+}
@@ -0,0 +1,107 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingIdGenerator;
+import com.kmak.roombooking.booking.BookingJournal;
+import com.kmak.roombooking.booking.BookingQueue;
+import com.kmak.roombooking.booking.BookingStore;
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import com.kmak.roombooking.booking.model.Room;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class BookingJournalTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+    @TempDir
+    private Path directory;
+
+    private final BookingStore bookingStore = mock(BookingStore.class);
+    private final BookingIdGenerator idGenerator = mock(BookingIdGenerator.class);
+    private final AtomicLong nextId = new AtomicLong(1);
+    private BookingQueue bookingQueue;
+    private BookingJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        when(idGenerator.nextId()).thenAnswer(invocation -> nextId.getAndIncrement());
+        when(bookingStore.insertPendingBookings(anyList()))
+                .thenAnswer(invocation -> new int[((List<?>) invocation.getArgument(0)).size()]);
+        bookingQueue = new BookingQueue(new SimpleMeterRegistry(), 1, 16, 16, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    void testAppend_WritesBookingsAndQueuesThem() throws Exception {
+        when(bookingStore.insertPendingBookings(anyList())).thenReturn(new int[]{1, 1});
+        journal = openJournal(bookingStore);
+
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 2L)));
+        List<Long> bookingIds = journal.append(List.of(booking(1L), booking(2L)));
+
+        assertEquals(List.of(1L, 2L), bookingIds);
+        assertEquals(new PendingBooking(1L, 1L, START_TIME, START_TIME.plusHours(1)), bookingQueue.consume(0));
+        assertEquals(new PendingBooking(2L, 2L, START_TIME, START_TIME.plusHours(1)), bookingQueue.consume(0));
+        verify(bookingStore, times(1)).insertPendingBookings(anyList());
+        assertTrue(journal.findUnwritten(1L).isEmpty());
+    }
+
+    @Test
+    void testOpen_ReplaysBookingsNotWrittenBeforeRestart() throws Exception {
+        BookingStore unavailable = mock(BookingStore.class);
+        when(unavailable.insertPendingBookings(anyList())).thenThrow(new DataAccessResourceFailureException("Database is down"));
+        journal = openJournal(unavailable);
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 2L)));
+        journal.append(List.of(booking(1L)));
+        journal.append(List.of(booking(2L)));
+        assertTrue(journal.findUnwritten(2L).isPresent());
+        journal.close();
+
+        journal = openJournal(bookingStore);
+
+        verify(bookingStore, times(1)).insertPendingBookings(argThat(rows -> rows.stream()
+                .map(PendingBookingRow::bookingId).toList().equals(List.of(1L, 2L))));
+        journal.close();
+
+        reset(bookingStore);
+        journal = openJournal(bookingStore);
+        verify(bookingStore, never()).insertPendingBookings(anyList());
+    }
+
+    private BookingJournal openJournal(BookingStore store) throws Exception {
+        BookingJournal bookingJournal = new BookingJournal(store, bookingQueue, idGenerator,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, directory.resolve("booking.journal"), 1, 500);
+        bookingJournal.open();
+        return bookingJournal;
+    }
+
+    private Booking booking(Long roomId) {
+        Room room = new Room();
+        room.setRoomId(roomId);
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setStartTime(START_TIME);
+        booking.setEndTime(START_TIME.plusHours(1));
+        return booking;
+    }
+}
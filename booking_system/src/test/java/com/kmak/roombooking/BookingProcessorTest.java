@@ -0,0 +1,87 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingProcessor;
+import com.kmak.roombooking.booking.BookingQueue;
+import com.kmak.roombooking.booking.BookingService;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.BadSqlGrammarException;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class BookingProcessorTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private BookingQueue bookingQueue;
+    private BookingProcessor bookingProcessor;
+
+    @BeforeEach
+    void setUp() {
+        bookingQueue = new BookingQueue(new SimpleMeterRegistry(), 1, 16, 16, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingProcessor.stop();
+    }
+
+    @Test
+    void testFailedBatchIsSettledOneAtATime() throws InterruptedException {
+        doThrow(new TransientDataAccessResourceException("Connection reset"))
+                .when(bookingService).settlePendingBookings(anyList());
+        bookingQueue.put(pendingBooking(1L));
+        bookingQueue.put(pendingBooking(2L));
+
+        bookingProcessor = new BookingProcessor(bookingQueue, bookingService, 64, 50, false);
+        bookingProcessor.start();
+
+        verify(bookingService, timeout(5000)).settlePendingBookings(List.of(pendingBooking(1L), pendingBooking(2L)));
+        verify(bookingService, timeout(5000)).settlePendingBooking(pendingBooking(1L));
+        verify(bookingService, timeout(5000)).settlePendingBooking(pendingBooking(2L));
+    }
+
+    @Test
+    void testDatabaseErrorIsRetried() throws InterruptedException {
+        doThrow(new TransientDataAccessResourceException("Connection reset")).doNothing()
+                .when(bookingService).settlePendingBooking(pendingBooking(1L));
+        bookingQueue.put(pendingBooking(1L));
+
+        bookingProcessor = new BookingProcessor(bookingQueue, bookingService, 1, 0, false);
+        bookingProcessor.start();
+
+        verify(bookingService, timeout(5000).times(2)).settlePendingBooking(pendingBooking(1L));
+    }
+
+    @Test
+    void testNonTransientErrorDoesNotBlockTheLane() throws InterruptedException {
+        doThrow(new BadSqlGrammarException("settle", "UPDATE bookings", new SQLException("Syntax error")))
+                .when(bookingService).settlePendingBooking(pendingBooking(1L));
+        bookingQueue.put(pendingBooking(1L));
+        bookingQueue.put(pendingBooking(2L));
+
+        bookingProcessor = new BookingProcessor(bookingQueue, bookingService, 1, 0, false);
+        bookingProcessor.start();
+
+        verify(bookingService, timeout(5000)).settlePendingBooking(pendingBooking(2L));
+        verify(bookingService, times(1)).settlePendingBooking(pendingBooking(1L));
+    }
+
+    private PendingBooking pendingBooking(long bookingId) {
+        return new PendingBooking(bookingId, 1L, START_TIME, START_TIME.plusHours(1));
+    }
+}
@@ -0,0 +1,168 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingQueue;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BookingQueueTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BookingQueue bookingQueue;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        bookingQueue = new BookingQueue(meterRegistry, 4, 4, 16, 100);
+        bookingQueue.put(pendingBooking(1L, 1L));
+        bookingQueue.put(pendingBooking(2L, 2L));
+    }
+
+    @Test
+    void testAdd_SameRoomKeepsOrderInOneLane() throws InterruptedException {
+        assertTrue(bookingQueue.reserve(1L));
+        bookingQueue.add(pendingBooking(3L, 1L));
+        assertTrue(bookingQueue.reserve(1L));
+        bookingQueue.add(pendingBooking(4L, 1L));
+
+        int lane = bookingQueue.laneOf(1L);
+        assertEquals(3, bookingQueue.depth(lane));
+        assertEquals(pendingBooking(1L, 1L), bookingQueue.consume(lane));
+        assertEquals(pendingBooking(3L, 1L), bookingQueue.consume(lane));
+        assertEquals(pendingBooking(4L, 1L), bookingQueue.consume(lane));
+        assertEquals(0, bookingQueue.depth(lane));
+        assertEquals(3, meterRegistry.get("booking.queue.wait").timer().count());
+    }
+
+    @Test
+    void testAdd_DifferentRoomsUseDifferentLanes() {
+        assertNotEquals(bookingQueue.laneOf(1L), bookingQueue.laneOf(2L));
+        assertEquals(1, bookingQueue.depth(bookingQueue.laneOf(2L)));
+        assertEquals(1, meterRegistry.get("booking.queue.depth").tag("lane", String.valueOf(bookingQueue.laneOf(2L))).gauge().value());
+    }
+
+    @Test
+    void testReserve_RefusedWhenLaneIsFull() throws InterruptedException {
+        int lane = bookingQueue.laneOf(1L);
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 1L, 1L)));
+        assertFalse(bookingQueue.reserve(1L));
+        assertFalse(bookingQueue.reserveAll(List.of(2L, 1L)));
+        assertEquals(3, meterRegistry.get("booking.queue.rejected").counter().count());
+        assertTrue(bookingQueue.reserve(2L));
+
+        bookingQueue.releaseAll(List.of(1L, 1L));
+        bookingQueue.consume(lane);
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 1L, 1L)));
+    }
+
+    @Test
+    void testAdd_LeftToRecoveryWhileRecovering() throws InterruptedException {
+        int lane = bookingQueue.laneOf(1L);
+        bookingQueue.startRecovery();
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 1L, 1L)));
+        bookingQueue.addAll(List.of(pendingBooking(3L, 1L), pendingBooking(4L, 1L), pendingBooking(5L, 1L)));
+        assertEquals(1, bookingQueue.depth(lane));
+
+        bookingQueue.finishRecovery();
+        assertTrue(bookingQueue.reserve(1L));
+        bookingQueue.add(pendingBooking(6L, 1L));
+        assertEquals(pendingBooking(1L, 1L), bookingQueue.consume(lane));
+        assertEquals(pendingBooking(6L, 1L), bookingQueue.consume(lane));
+    }
+
+    @Test
+    void testDrain_ConcurrentProducersKeepTheirOrder() throws Exception {
+        bookingQueue = new BookingQueue(meterRegistry, 1, 64, 16, 100);
+        int producers = 4;
+        int bookingsPerProducer = 1000;
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            for (int producer = 0; producer < producers; producer++) {
+                long roomId = producer;
+                executor.execute(() -> {
+                    for (long id = 0; id < bookingsPerProducer; id++) {
+                        try {
+                            bookingQueue.put(pendingBooking(id, roomId));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                });
+            }
+            long[] nextId = new long[producers];
+            List<PendingBooking> batch = new ArrayList<>();
+            for (int received = 0; received < producers * bookingsPerProducer; received += batch.size()) {
+                batch.clear();
+                bookingQueue.drain(0, batch, 16, 1);
+                for (PendingBooking booking : batch) {
+                    assertEquals(nextId[(int) booking.roomId()]++, booking.bookingId());
+                }
+            }
+        }
+        assertEquals(0, bookingQueue.depth(0));
+    }
+
+    @Test
+    void testConsume_LightClientIsNotStuckBehindHeavyClient() throws InterruptedException {
+        bookingQueue = new BookingQueue(meterRegistry, 1, 64, 2, 100);
+        for (long id = 10; id < 20; id++) {
+            assertTrue(bookingQueue.reserve(id));
+            bookingQueue.add(pendingBooking(id, id), "heavy");
+        }
+        assertTrue(bookingQueue.reserve(20L));
+        bookingQueue.add(pendingBooking(20L, 20L), "light");
+        assertEquals(10, meterRegistry.get("booking.queue.client.depth").tag("client", "heavy").gauge().value());
+
+        assertEquals(pendingBooking(10L, 10L), bookingQueue.consume(0));
+        assertEquals(pendingBooking(11L, 11L), bookingQueue.consume(0));
+        assertEquals(pendingBooking(20L, 20L), bookingQueue.consume(0));
+        assertEquals(pendingBooking(12L, 12L), bookingQueue.consume(0));
+        assertEquals(7, bookingQueue.depth(0));
+        assertEquals(7, meterRegistry.get("booking.queue.client.depth").tag("client", "heavy").gauge().value());
+        assertEquals(0, meterRegistry.get("booking.queue.client.depth").tag("client", "light").gauge().value());
+        assertEquals(1, meterRegistry.get("booking.queue.client.wait").tag("client", "light").timer().count());
+    }
+
+    @Test
+    void testConsume_SameRoomKeepsOrderAcrossClients() throws InterruptedException {
+        bookingQueue = new BookingQueue(meterRegistry, 1, 64, 1, 100);
+        for (long id = 1; id <= 3; id++) {
+            assertTrue(bookingQueue.reserve(1L));
+            bookingQueue.add(pendingBooking(id, 1L), "heavy");
+        }
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 2L)));
+        bookingQueue.addAll(List.of(pendingBooking(4L, 1L), pendingBooking(5L, 2L)), "light");
+
+        List<PendingBooking> batch = new ArrayList<>();
+        bookingQueue.drain(0, batch, 16, 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), batch.stream().map(PendingBooking::bookingId).toList());
+    }
+
+    @Test
+    void testAdd_ClientsBeyondTheLimitShareOneQueue() throws InterruptedException {
+        // the queue from setUp already registered its own client gauges in the shared registry
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        bookingQueue = new BookingQueue(meterRegistry, 1, 64, 16, 1);
+        assertTrue(bookingQueue.reserveAll(List.of(1L, 2L, 3L)));
+        bookingQueue.add(pendingBooking(1L, 1L), "first");
+        bookingQueue.add(pendingBooking(2L, 2L), "second");
+        bookingQueue.add(pendingBooking(3L, 3L), "third");
+
+        assertEquals(1, meterRegistry.get("booking.queue.client.depth").tag("client", "first").gauge().value());
+        assertEquals(2, meterRegistry.get("booking.queue.client.depth").tag("client", "other").gauge().value());
+        assertTrue(meterRegistry.find("booking.queue.client.depth").tag("client", "second").gauges().isEmpty());
+    }
+
+    private PendingBooking pendingBooking(Long bookingId, Long roomId) {
+        return new PendingBooking(bookingId, roomId, START_TIME, START_TIME.plusHours(1));
+    }
+}
@@ -3,6 +3,7 @@ package com.kmak.roombooking;
 import com.kmak.roombooking.booking.BookingRepository;
 import com.kmak.roombooking.booking.model.Booking;
 import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingView;
 import com.kmak.roombooking.booking.model.Room;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,27 +35,14 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    void testFindAllPendingBookings() {
-        Booking booking1 = new Booking();
-        booking1.setRoom(room);
-        booking1.setStartTime(LocalDateTime.now().plusDays(1));
-        booking1.setEndTime(LocalDateTime.now().plusDays(1).plusHours(1));
-        booking1.setBookingStatus(BookingStatus.PENDING);
-        booking1.setRequestTime(LocalDateTime.now());
-        entityManager.persist(booking1);
+    void testFindViewById() {
+        Booking booking = booking(LocalDateTime.of(2099, 11, 20, 12, 0), BookingStatus.ACCEPTED);
+        entityManager.clear();
 
-        Booking booking2 = new Booking();
-        booking2.setRoom(room);
-        booking2.setStartTime(LocalDateTime.now().plusDays(2));
-        booking2.setEndTime(LocalDateTime.now().plusDays(2).plusHours(1));
-        booking2.setBookingStatus(BookingStatus.PENDING);
-        booking2.setRequestTime(LocalDateTime.now().plusMinutes(1));
-        entityManager.persist(booking2);
-
-        var pendingBookings = bookingRepository.findAllPendingBookings();
-        assertEquals(2, pendingBookings.size());
-        assertEquals(booking1, pendingBookings.get(0));
-        assertEquals(booking2, pendingBookings.get(1));
+        assertEquals(Optional.of(new BookingView(booking.getBookingId(), room.getRoomId(), "Room 101",
+                        booking.getStartTime(), booking.getEndTime(), BookingStatus.ACCEPTED)),
+                bookingRepository.findViewById(booking.getBookingId()));
+        assertTrue(bookingRepository.findViewById(booking.getBookingId() + 1).isEmpty());
     }
 
     @Test
@@ -75,4 +64,19 @@ public class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(1).withHour(11).plusMinutes(30));
         assertFalse(conflict);
     }
-}
\ No newline at end of file
+
+    private Booking booking(LocalDateTime requestTime, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setStartTime(LocalDateTime.of(2099, 11, 23, 9, 0));
+        booking.setEndTime(LocalDateTime.of(2099, 11, 23, 10, 0));
+        booking.setBookingStatus(status);
+        entityManager.persist(booking);
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE Booking b SET b.requestTime = :requestTime WHERE b.bookingId = :bookingId")
+                .setParameter("requestTime", requestTime)
+                .setParameter("bookingId", booking.getBookingId())
+                .executeUpdate();
+        return booking;
+    }
+}
@@ -2,21 +2,34 @@ package com.kmak.roombooking;
 
 import com.kmak.roombooking.booking.*;
 import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingRequest;
+import com.kmak.roombooking.booking.model.BookingResponse;
 import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.BookingView;
+import com.kmak.roombooking.booking.model.PendingBooking;
 import com.kmak.roombooking.booking.model.Room;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.*;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class BookingServiceTest {
@@ -28,11 +41,38 @@ public class BookingServiceTest {
     private BookingRepository bookingRepository;
 
     @Mock
-    private RoomRepository roomRepository;
+    private BookingStore bookingStore;
+
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Mock
+    private RoomRegistry roomRegistry;
+
+    @Mock
+    private AcceptedBookingIndex acceptedBookingIndex;
+
+    @Spy
+    private BookingSettlementNotifier settlementNotifier = new BookingSettlementNotifier();
+
+    @Spy
+    private RoomLocks roomLocks = new RoomLocks();
+
+    @Mock
+    private ClusterSettlement clusterSettlement;
+
+    @Mock
+    private BookingJournal bookingJournal;
+
+    @Spy
+    private BookingCache bookingCache = new BookingCache(new SimpleMeterRegistry(), 100, 60);
 
     @Mock
     private PlatformTransactionManager transactionManager;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -55,16 +95,32 @@ public class BookingServiceTest {
         LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
         LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
 
-        when(roomRepository.existsById(roomId)).thenReturn(true);
-        when(roomRepository.getReferenceById(roomId)).thenReturn(new Room());
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
-            Booking booking = invocation.getArgument(0);
-            booking.setBookingId(1L);
-            return booking;
+        Room room = new Room();
+        room.setRoomId(roomId);
+        when(roomRegistry.find(roomId)).thenReturn(Optional.of(room));
+        when(bookingQueue.reserve(roomId)).thenReturn(true);
+        when(bookingStore.insertBookings(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.getFirst().setBookingId(1L);
+            return bookings;
         });
         Long bookingId = bookingService.createNewBooking(roomId, startTime, endTime);
         assertNotNull(bookingId);
-        verify(bookingQueue, times(1)).add(any(Booking.class));
+        verify(bookingQueue, times(1)).add(new PendingBooking(1L, roomId, startTime, endTime), null);
+    }
+
+    @Test
+    void testCreateNewBooking_QueueFull() {
+        Long roomId = 1L;
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+
+        when(roomRegistry.find(roomId)).thenReturn(Optional.of(new Room()));
+        when(bookingQueue.reserve(roomId)).thenReturn(false);
+
+        assertThrows(BookingQueueFullException.class, () -> bookingService.createNewBooking(roomId, startTime, endTime));
+        verify(bookingStore, never()).insertBookings(anyList());
+        verify(bookingQueue, never()).add(any(PendingBooking.class), any());
     }
 
     @Test
@@ -73,11 +129,151 @@ public class BookingServiceTest {
         LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
         LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
 
-        when(roomRepository.existsById(roomId)).thenReturn(false);
+        when(roomRegistry.find(roomId)).thenReturn(Optional.empty());
 
         assertThrows(InvalidBookingException.class, () -> bookingService.createNewBooking(roomId, startTime, endTime));
     }
 
+    @Test
+    void testCreateNewBooking_RoomDeletedSinceRegistryLoaded() {
+        Long roomId = 1L;
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+
+        Room room = new Room();
+        room.setRoomId(roomId);
+        when(roomRegistry.find(roomId)).thenReturn(Optional.of(room), Optional.empty());
+        when(bookingQueue.reserve(roomId)).thenReturn(true);
+        when(bookingStore.insertBookings(anyList())).thenThrow(new DataIntegrityViolationException("FK_ROOM"));
+
+        InvalidBookingException e = assertThrows(InvalidBookingException.class, () -> bookingService.createNewBooking(roomId, startTime, endTime));
+        assertEquals("Room not found", e.getMessage());
+        verify(roomRegistry).refresh();
+        verify(bookingQueue).release(roomId);
+    }
+
+    @Test
+    void testCreateNewBooking_OtherIntegrityViolationIsRethrown() {
+        Long roomId = 1L;
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+
+        Room room = new Room();
+        room.setRoomId(roomId);
+        when(roomRegistry.find(roomId)).thenReturn(Optional.of(room));
+        when(bookingQueue.reserve(roomId)).thenReturn(true);
+        when(bookingStore.insertBookings(anyList())).thenThrow(new DataIntegrityViolationException("PRIMARY_KEY"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> bookingService.createNewBooking(roomId, startTime, endTime));
+        verify(bookingQueue).release(roomId);
+    }
+
+    @Test
+    void testCreateAndSettleBooking_Accepted() {
+        Long roomId = 1L;
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+
+        Room room = new Room();
+        room.setRoomId(roomId);
+        when(roomRegistry.find(roomId)).thenReturn(Optional.of(room));
+        when(acceptedBookingIndex.hasConflict(roomId, startTime, endTime)).thenReturn(false);
+        when(bookingStore.insertBookings(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.getFirst().setBookingId(1L);
+            return bookings;
+        });
+
+        Booking booking = bookingService.createAndSettleBooking(roomId, startTime, endTime);
+
+        assertEquals(BookingStatus.ACCEPTED, booking.getBookingStatus());
+        verify(bookingStore, times(1)).insertBookings(anyList());
+        verify(acceptedBookingIndex, times(1)).add(roomId, startTime, endTime);
+        verify(bookingQueue, never()).add(any(PendingBooking.class), any());
+    }
+
+    @Test
+    void testCreateAndSettleBooking_Rejected() {
+        Long roomId = 1L;
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+
+        Room room = new Room();
+        room.setRoomId(roomId);
+        when(roomRegistry.find(roomId)).thenReturn(Optional.of(room));
+        when(acceptedBookingIndex.hasConflict(roomId, startTime, endTime)).thenReturn(true);
+        when(bookingStore.insertBookings(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.getFirst().setBookingId(1L);
+            return bookings;
+        });
+
+        Booking booking = bookingService.createAndSettleBooking(roomId, startTime, endTime);
+
+        assertEquals(BookingStatus.REJECTED, booking.getBookingStatus());
+        verify(acceptedBookingIndex, never()).add(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookingQueue, never()).add(any(PendingBooking.class), any());
+    }
+
+    @Test
+    void testCreateNewBookings_PartialSuccess() {
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+        List<BookingRequest> bookingRequests = List.of(
+                new BookingRequest(1L, startTime, endTime),
+                new BookingRequest(99L, startTime, endTime),
+                new BookingRequest(2L, endTime, startTime),
+                new BookingRequest(2L, startTime, endTime)
+        );
+
+        Room room = new Room();
+        room.setRoomId(1L);
+        Room otherRoom = new Room();
+        otherRoom.setRoomId(2L);
+        when(roomRegistry.find(1L)).thenReturn(Optional.of(room));
+        when(roomRegistry.find(2L)).thenReturn(Optional.of(otherRoom));
+        when(roomRegistry.find(99L)).thenReturn(Optional.empty());
+        when(bookingQueue.reserveAll(List.of(1L, 2L))).thenReturn(true);
+        when(bookingStore.insertBookings(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            for (int i = 0; i < bookings.size(); i++) {
+                bookings.get(i).setBookingId(10L + i);
+            }
+            return bookings;
+        });
+
+        List<BookingResponse> responses = bookingService.createNewBookings(bookingRequests);
+
+        assertEquals(List.of(
+                new BookingResponse(10L),
+                BookingResponse.failed("Room not found"),
+                BookingResponse.failed("Start time cannot be after end time"),
+                new BookingResponse(11L)
+        ), responses);
+        verify(bookingStore, times(1)).insertBookings(anyList());
+        verify(bookingQueue, times(1)).addAll(anyList(), any());
+    }
+
+    @Test
+    void testCreateNewBookings_NullRequest() {
+        LocalDateTime startTime = getFixedCurrentDateTime().plusDays(1).withHour(9);
+        LocalDateTime endTime = getFixedCurrentDateTime().plusDays(1).withHour(10);
+        List<BookingRequest> bookingRequests = Arrays.asList(null, new BookingRequest(1L, startTime, endTime));
+
+        Room room = new Room();
+        room.setRoomId(1L);
+        when(roomRegistry.find(1L)).thenReturn(Optional.of(room));
+        when(bookingQueue.reserveAll(List.of(1L))).thenReturn(true);
+        when(bookingStore.insertBookings(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            bookings.getFirst().setBookingId(10L);
+            return bookings;
+        });
+
+        assertEquals(List.of(BookingResponse.failed("Booking request is missing"), new BookingResponse(10L)),
+                bookingService.createNewBookings(bookingRequests));
+    }
+
     @Test
     void testCreateNewBooking_InvalidTime() {
         Long roomId = 1L;
@@ -125,38 +321,117 @@ public class BookingServiceTest {
 
     @Test
     void testSettlePendingBooking_Accepted() {
-        Booking booking = new Booking();
-        booking.setBookingId(1L);
-        booking.setBookingStatus(BookingStatus.PENDING);
-        booking.setRoom(new Room());
-        booking.setStartTime(getFixedCurrentDateTime().plusDays(1).withHour(9));
-        booking.setEndTime(getFixedCurrentDateTime().plusDays(1).withHour(10));
+        PendingBooking booking = PendingBooking.of(pendingBooking(1L, 1L, 9, 10));
 
-        when(bookingRepository.existsConflictingBookings(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+        when(acceptedBookingIndex.hasConflict(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+        when(bookingStore.updatePendingStatuses(List.of(1L), BookingStatus.ACCEPTED)).thenReturn(new int[]{1});
+        when(bookingStore.updatePendingStatuses(List.of(), BookingStatus.REJECTED)).thenReturn(new int[0]);
 
         bookingService.settlePendingBooking(booking);
 
-        assertEquals(BookingStatus.ACCEPTED, booking.getBookingStatus());
-        verify(bookingRepository, times(1)).save(booking);
+        verify(bookingStore, times(1)).updatePendingStatuses(List.of(1L), BookingStatus.ACCEPTED);
+        verify(acceptedBookingIndex, times(1)).add(1L, booking.startTime(), booking.endTime());
+        assertEquals(1, meterRegistry.get("booking.settled").tag("status", "accepted").counter().count());
+        assertEquals(1, meterRegistry.get("booking.settle").timer().count());
     }
 
     @Test
     void testSettlePendingBooking_Rejected() {
-        Booking booking = new Booking();
-        booking.setBookingId(1L);
-        booking.setBookingStatus(BookingStatus.PENDING);
-        Room room = new Room();
-        room.setRoomId(1L);
-        booking.setRoom(room);
-        booking.setStartTime(getFixedCurrentDateTime().plusDays(1).withHour(9));
-        booking.setEndTime(getFixedCurrentDateTime().plusDays(1).withHour(10));
+        PendingBooking booking = PendingBooking.of(pendingBooking(1L, 1L, 9, 10));
 
-        when(bookingRepository.existsConflictingBookings(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(acceptedBookingIndex.hasConflict(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(bookingStore.updatePendingStatuses(List.of(), BookingStatus.ACCEPTED)).thenReturn(new int[0]);
+        when(bookingStore.updatePendingStatuses(List.of(1L), BookingStatus.REJECTED)).thenReturn(new int[]{1});
 
         bookingService.settlePendingBooking(booking);
 
-        assertEquals(BookingStatus.REJECTED, booking.getBookingStatus());
-        verify(bookingRepository, times(1)).save(booking);
+        verify(bookingStore, times(1)).updatePendingStatuses(List.of(1L), BookingStatus.REJECTED);
+        verify(acceptedBookingIndex, never()).add(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        assertEquals(1, meterRegistry.get("booking.settled").tag("status", "rejected").counter().count());
+    }
+
+    @Test
+    void testSettlePendingBooking_RejectedByOtherInstance() {
+        PendingBooking booking = PendingBooking.of(pendingBooking(1L, 1L, 9, 10));
+
+        when(acceptedBookingIndex.hasConflict(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+        when(clusterSettlement.hasConflict(1L, booking.startTime(), booking.endTime())).thenReturn(true);
+        when(bookingStore.updatePendingStatuses(List.of(), BookingStatus.ACCEPTED)).thenReturn(new int[0]);
+        when(bookingStore.updatePendingStatuses(List.of(1L), BookingStatus.REJECTED)).thenReturn(new int[]{1});
+
+        bookingService.settlePendingBooking(booking);
+
+        var inOrder = inOrder(clusterSettlement, bookingStore);
+        inOrder.verify(clusterSettlement).lockRooms(List.of(1L));
+        inOrder.verify(bookingStore).updatePendingStatuses(List.of(1L), BookingStatus.REJECTED);
+    }
+
+    @Test
+    void testSettlePendingBooking_AlreadySettledIsNotNotified() {
+        PendingBooking booking = PendingBooking.of(pendingBooking(1L, 1L, 9, 10));
+
+        when(bookingStore.updatePendingStatuses(List.of(1L), BookingStatus.ACCEPTED)).thenReturn(new int[]{0});
+        when(bookingStore.updatePendingStatuses(List.of(), BookingStatus.REJECTED)).thenReturn(new int[0]);
+
+        bookingService.settlePendingBooking(booking);
+
+        verify(acceptedBookingIndex, never()).add(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(settlementNotifier, never()).settled(anyLong(), any(BookingStatus.class));
+    }
+
+    @Test
+    void testSettlePendingBookings_ResolvesBatchInMemory() {
+        PendingBooking first = PendingBooking.of(pendingBooking(1L, 1L, 9, 10));
+        PendingBooking overlapping = PendingBooking.of(pendingBooking(2L, 1L, 9, 11));
+        PendingBooking otherRoom = PendingBooking.of(pendingBooking(3L, 2L, 9, 10));
+        PendingBooking alreadyBooked = PendingBooking.of(pendingBooking(4L, 3L, 9, 10));
+
+        when(acceptedBookingIndex.hasConflict(eq(3L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(true);
+        when(bookingStore.updatePendingStatuses(List.of(1L, 3L), BookingStatus.ACCEPTED)).thenReturn(new int[]{1, 1});
+        when(bookingStore.updatePendingStatuses(List.of(2L, 4L), BookingStatus.REJECTED)).thenReturn(new int[]{1, 1});
+
+        bookingService.settlePendingBookings(List.of(first, overlapping, otherRoom, alreadyBooked));
+
+        verify(bookingStore, times(1)).updatePendingStatuses(List.of(1L, 3L), BookingStatus.ACCEPTED);
+        verify(bookingStore, times(1)).updatePendingStatuses(List.of(2L, 4L), BookingStatus.REJECTED);
+        verify(bookingStore, never()).insertBookings(anyList());
+        verify(acceptedBookingIndex, times(1)).add(1L, first.startTime(), first.endTime());
+        verify(acceptedBookingIndex, times(1)).add(2L, otherRoom.startTime(), otherRoom.endTime());
+        verify(acceptedBookingIndex, never()).add(eq(3L), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testAwaitSettlement_CompletesWhenSettled() {
+        Booking booking = pendingBooking(1L, 1L, 9, 10);
+        when(bookingRepository.findViewById(1L)).thenReturn(Optional.of(BookingView.of(booking)));
+        when(acceptedBookingIndex.hasConflict(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+        when(bookingStore.updatePendingStatuses(List.of(1L), BookingStatus.ACCEPTED)).thenReturn(new int[]{1});
+        when(bookingStore.updatePendingStatuses(List.of(), BookingStatus.REJECTED)).thenReturn(new int[0]);
+
+        CompletableFuture<BookingStatus> settlement = bookingService.awaitSettlement(1L).orElseThrow();
+        assertFalse(settlement.isDone());
+
+        bookingService.settlePendingBooking(PendingBooking.of(booking));
+
+        assertEquals(BookingStatus.ACCEPTED, settlement.join());
+    }
+
+    @Test
+    void testAwaitSettlement_AlreadySettled() {
+        Booking booking = pendingBooking(1L, 1L, 9, 10);
+        booking.setBookingStatus(BookingStatus.REJECTED);
+        when(bookingRepository.findViewById(1L)).thenReturn(Optional.of(BookingView.of(booking)));
+
+        CompletableFuture<BookingStatus> settlement = bookingService.awaitSettlement(1L).orElseThrow();
+
+        assertEquals(BookingStatus.REJECTED, settlement.join());
+    }
+
+    @Test
+    void testAwaitSettlement_NotFound() {
+        when(bookingRepository.findViewById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(bookingService.awaitSettlement(1L).isEmpty());
     }
 
     @Test
@@ -165,12 +440,48 @@ public class BookingServiceTest {
         Booking booking = new Booking();
         booking.setBookingId(bookingId);
 
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findViewById(bookingId)).thenReturn(Optional.of(BookingView.of(booking)));
 
-        Optional<Booking> result = bookingService.getBooking(bookingId);
+        Optional<BookingView> result = bookingService.getBooking(bookingId);
 
         assertTrue(result.isPresent());
-        assertEquals(bookingId, result.get().getBookingId());
+        assertEquals(bookingId, result.get().bookingId());
+    }
+
+    @Test
+    void testGetBooking_Archived() {
+        BookingView archived = BookingView.of(pendingBooking(1L, 1L, 9, 10));
+        when(bookingRepository.findViewById(1L)).thenReturn(Optional.empty());
+        when(archivedBookingRepository.findViewById(1L)).thenReturn(Optional.of(archived));
+
+        assertEquals(Optional.of(archived), bookingService.getBooking(1L));
+    }
+
+    @Test
+    void testGetBooking_ServedFromCacheAndUpdatedOnSettle() {
+        Booking booking = pendingBooking(1L, 1L, 9, 10);
+        when(bookingRepository.findViewById(1L)).thenReturn(Optional.of(BookingView.of(booking)));
+        when(acceptedBookingIndex.hasConflict(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(false);
+        when(bookingStore.updatePendingStatuses(List.of(1L), BookingStatus.ACCEPTED)).thenReturn(new int[]{1});
+        when(bookingStore.updatePendingStatuses(List.of(), BookingStatus.REJECTED)).thenReturn(new int[0]);
+
+        assertEquals(BookingStatus.PENDING, bookingService.getBooking(1L).orElseThrow().bookingStatus());
+        bookingService.settlePendingBooking(PendingBooking.of(booking));
+
+        assertEquals(BookingStatus.ACCEPTED, bookingService.getBooking(1L).orElseThrow().bookingStatus());
+        verify(bookingRepository, times(1)).findViewById(1L);
+    }
+
+    private Booking pendingBooking(Long bookingId, Long roomId, int startHour, int endHour) {
+        Room room = new Room();
+        room.setRoomId(roomId);
+        Booking booking = new Booking();
+        booking.setBookingId(bookingId);
+        booking.setBookingStatus(BookingStatus.PENDING);
+        booking.setRoom(room);
+        booking.setStartTime(getFixedCurrentDateTime().plusDays(1).withHour(startHour));
+        booking.setEndTime(getFixedCurrentDateTime().plusDays(1).withHour(endHour));
+        return booking;
     }
 
     private LocalDateTime getFixedCurrentDateTime() {
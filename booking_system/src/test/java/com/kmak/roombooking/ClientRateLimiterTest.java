@@ -0,0 +1,82 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.ClientRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testPreHandle_RejectsOnceBurstIsUsed() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(meterRegistry, "new", 0.01, 2, 100);
+
+        assertTrue(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+        assertTrue(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(limiter.preHandle(request("tenant-a"), response, null));
+
+        assertEquals(429, response.getStatus());
+        assertEquals("100", response.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("booking.rate-limit.rejected").tag("endpoint", "new").counter().count());
+    }
+
+    @Test
+    void testPreHandle_ClientsHaveTheirOwnBuckets() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(meterRegistry, "new", 0.01, 1, 100);
+
+        assertTrue(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+        assertFalse(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+        assertTrue(limiter.preHandle(request("tenant-b"), new MockHttpServletResponse(), null));
+        // without the header the remote address is the client
+        assertTrue(limiter.preHandle(request(null), new MockHttpServletResponse(), null));
+        assertFalse(limiter.preHandle(request(null), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void testPreHandle_RefillsOverTime() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(meterRegistry, "new", 50, 1, 100);
+
+        assertTrue(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+        assertFalse(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+        Thread.sleep(40);
+        assertTrue(limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void testPreHandle_ConcurrentRequestsNeverExceedBurst() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(meterRegistry, "new", 0.01, 100, 100);
+        AtomicInteger admitted = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(() -> {
+                    try {
+                        if (limiter.preHandle(request("tenant-a"), new MockHttpServletResponse(), null)) {
+                            admitted.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+        }
+        assertEquals(100, admitted.get());
+    }
+
+    private MockHttpServletRequest request(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings/new");
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        return request;
+    }
+}
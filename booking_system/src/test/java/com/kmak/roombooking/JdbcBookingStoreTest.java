@@ -0,0 +1,165 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.ArchivedBookingRepository;
+import com.kmak.roombooking.booking.BookingIdGenerator;
+import com.kmak.roombooking.booking.BookingRepository;
+import com.kmak.roombooking.booking.BookingStore;
+import com.kmak.roombooking.booking.JdbcBookingStore;
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.BookingStatus;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import com.kmak.roombooking.booking.model.Room;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({JdbcBookingStore.class, BookingIdGenerator.class})
+public class JdbcBookingStoreTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookingStore bookingStore;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        room = new Room();
+        room.setRoomName("Room 101");
+        entityManager.persist(room);
+    }
+
+    @Test
+    void testInsertBookings() {
+        Booking pending = newBooking(LocalDateTime.of(2099, 11, 23, 9, 0), BookingStatus.PENDING);
+        Booking accepted = newBooking(LocalDateTime.of(2099, 11, 23, 11, 0), BookingStatus.ACCEPTED);
+        accepted.setRecurringBookingId(7L);
+
+        bookingStore.insertBookings(List.of(pending, accepted));
+        entityManager.clear();
+
+        assertNotNull(pending.getBookingId());
+        assertNotEquals(pending.getBookingId(), accepted.getBookingId());
+        Booking stored = entityManager.find(Booking.class, accepted.getBookingId());
+        assertEquals(BookingStatus.ACCEPTED, stored.getBookingStatus());
+        assertEquals(accepted.getStartTime(), stored.getStartTime());
+        assertEquals(7L, stored.getRecurringBookingId());
+        assertNotNull(stored.getRequestTime());
+        assertEquals(BookingStatus.PENDING, entityManager.find(Booking.class, pending.getBookingId()).getBookingStatus());
+    }
+
+    @Test
+    void testExistsConflictingBooking() {
+        LocalDateTime startTime = LocalDateTime.of(2099, 11, 23, 9, 0);
+        bookingStore.insertBookings(List.of(newBooking(startTime, BookingStatus.ACCEPTED),
+                newBooking(startTime.plusHours(2), BookingStatus.REJECTED)));
+
+        assertTrue(bookingStore.existsConflictingBooking(room.getRoomId(), startTime.plusMinutes(30), startTime.plusMinutes(90)));
+        assertFalse(bookingStore.existsConflictingBooking(room.getRoomId(), startTime.plusHours(1), startTime.plusHours(2)));
+        assertFalse(bookingStore.existsConflictingBooking(room.getRoomId(), startTime.plusHours(2), startTime.plusHours(3)));
+        assertFalse(bookingStore.existsConflictingBooking(room.getRoomId() + 1, startTime, startTime.plusHours(1)));
+    }
+
+    @Test
+    void testFindPendingBookingsAfter() {
+        LocalDateTime requestTime = LocalDateTime.of(2099, 11, 20, 12, 0);
+        Booking first = booking(requestTime, BookingStatus.PENDING);
+        Booking sameTime = booking(requestTime, BookingStatus.PENDING);
+        booking(requestTime.plusMinutes(1), BookingStatus.ACCEPTED);
+        Booking later = booking(requestTime.plusMinutes(2), BookingStatus.PENDING);
+
+        var firstPage = bookingStore.findPendingBookingsAfter(requestTime.minusDays(1), 0L, 2);
+        assertEquals(List.of(first.getBookingId(), sameTime.getBookingId()),
+                firstPage.stream().map(PendingBookingRow::bookingId).toList());
+        assertEquals(PendingBooking.of(first), firstPage.getFirst().toPendingBooking());
+
+        var nextPage = bookingStore.findPendingBookingsAfter(requestTime, sameTime.getBookingId(), 2);
+        assertEquals(List.of(later.getBookingId()), nextPage.stream().map(PendingBookingRow::bookingId).toList());
+        assertEquals(3, bookingStore.countPendingBookings());
+    }
+
+    @Test
+    void testArchiveSettledBookings() {
+        LocalDateTime requestTime = LocalDateTime.of(2099, 11, 20, 12, 0);
+        Booking accepted = booking(requestTime, BookingStatus.ACCEPTED);
+        Booking rejected = booking(requestTime, BookingStatus.REJECTED);
+        Booking pending = booking(requestTime, BookingStatus.PENDING);
+
+        assertEquals(0, bookingStore.archiveSettledBookings(accepted.getEndTime(), 10));
+        assertEquals(1, bookingStore.archiveSettledBookings(accepted.getEndTime().plusMinutes(1), 1));
+        assertEquals(1, bookingStore.archiveSettledBookings(accepted.getEndTime().plusMinutes(1), 10));
+        entityManager.clear();
+
+        assertEquals(List.of(pending.getBookingId()), bookingRepository.findAll().stream().map(Booking::getBookingId).toList());
+        assertEquals(BookingStatus.REJECTED, archivedBookingRepository.findViewById(rejected.getBookingId()).orElseThrow().bookingStatus());
+        assertEquals("Room 101", archivedBookingRepository.findViewById(accepted.getBookingId()).orElseThrow().roomName());
+    }
+
+    @Test
+    void testUpdatePendingStatuses() {
+        Booking pending = new Booking();
+        pending.setRoom(room);
+        pending.setStartTime(LocalDateTime.now().plusDays(1).withHour(9));
+        pending.setEndTime(LocalDateTime.now().plusDays(1).withHour(10));
+        pending.setBookingStatus(BookingStatus.PENDING);
+        entityManager.persist(pending);
+
+        Booking settled = new Booking();
+        settled.setRoom(room);
+        settled.setStartTime(LocalDateTime.now().plusDays(1).withHour(11));
+        settled.setEndTime(LocalDateTime.now().plusDays(1).withHour(12));
+        settled.setBookingStatus(BookingStatus.REJECTED);
+        entityManager.persist(settled);
+        entityManager.flush();
+
+        int[] updateCounts = bookingStore.updatePendingStatuses(
+                List.of(pending.getBookingId(), settled.getBookingId()), BookingStatus.ACCEPTED);
+        entityManager.clear();
+
+        assertArrayEquals(new int[]{1, 0}, updateCounts);
+        assertEquals(BookingStatus.ACCEPTED, entityManager.find(Booking.class, pending.getBookingId()).getBookingStatus());
+        assertEquals(BookingStatus.REJECTED, entityManager.find(Booking.class, settled.getBookingId()).getBookingStatus());
+    }
+
+    private Booking newBooking(LocalDateTime startTime, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setStartTime(startTime);
+        booking.setEndTime(startTime.plusHours(1));
+        booking.setBookingStatus(status);
+        return booking;
+    }
+
+    private Booking booking(LocalDateTime requestTime, BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setStartTime(LocalDateTime.of(2099, 11, 23, 9, 0));
+        booking.setEndTime(LocalDateTime.of(2099, 11, 23, 10, 0));
+        booking.setBookingStatus(status);
+        entityManager.persist(booking);
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE Booking b SET b.requestTime = :requestTime WHERE b.bookingId = :bookingId")
+                .setParameter("requestTime", requestTime)
+                .setParameter("bookingId", booking.getBookingId())
+                .executeUpdate();
+        return booking;
+    }
+}
@@ -0,0 +1,102 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.BookingQueue;
+import com.kmak.roombooking.booking.BookingStore;
+import com.kmak.roombooking.booking.PendingBookingRecovery;
+import com.kmak.roombooking.booking.model.PendingBooking;
+import com.kmak.roombooking.booking.model.PendingBookingRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PendingBookingRecoveryTest {
+
+    private static final LocalDateTime REQUEST_TIME = LocalDateTime.of(2099, 11, 20, 12, 0);
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BookingStore bookingStore = mock(BookingStore.class);
+    private BookingQueue bookingQueue;
+    private PendingBookingRecovery recovery;
+
+    @BeforeEach
+    void setUp() {
+        bookingQueue = new BookingQueue(meterRegistry, 1, 16, 16, 100);
+        recovery = new PendingBookingRecovery(bookingStore, bookingQueue, meterRegistry, 2);
+        recovery.init();
+    }
+
+    @Test
+    void testRecover_QueuesBacklogBeforeNewBookings() throws InterruptedException {
+        when(bookingStore.countPendingBookings()).thenReturn(4L);
+        when(bookingStore.findPendingBookingsAfter(any(LocalDateTime.class), anyLong(), eq(2)))
+                .thenReturn(List.of(row(1L, 0), row(2L, 0)), List.of(row(3L, 1)), List.of(row(4L, 2)), List.of());
+
+        assertTrue(bookingQueue.isRecovering());
+        assertTrue(bookingQueue.reserve(1L));
+        bookingQueue.add(pendingBooking(4L));
+
+        recovery.recover();
+
+        assertFalse(bookingQueue.isRecovering());
+        assertEquals(4, bookingQueue.depth(0));
+        for (long bookingId = 1; bookingId <= 4; bookingId++) {
+            assertEquals(pendingBooking(bookingId), bookingQueue.consume(0));
+        }
+        assertEquals(4, meterRegistry.get("booking.recovery.recovered").counter().count());
+        assertEquals(0, meterRegistry.get("booking.recovery.active").gauge().value());
+    }
+
+    @Test
+    void testRecover_QueuesBookingThatCommittedBehindTheScan() throws InterruptedException {
+        // booking 2 was requested before booking 1 but commits after the backlog scan has passed booking 1
+        PendingBookingRow late = new PendingBookingRow(2L, 1L, START_TIME, START_TIME.plusHours(1), LocalDateTime.now());
+        PendingBookingRow early = new PendingBookingRow(1L, 1L, START_TIME, START_TIME.plusHours(1), late.requestTime().plusNanos(1000));
+        List<PendingBookingRow> committed = new ArrayList<>(List.of(early));
+        when(bookingStore.countPendingBookings()).thenReturn(1L);
+        when(bookingStore.findPendingBookingsAfter(any(LocalDateTime.class), anyLong(), eq(2))).thenAnswer(invocation -> {
+            LocalDateTime requestTime = invocation.getArgument(0);
+            long bookingId = invocation.getArgument(1);
+            List<PendingBookingRow> page = committed.stream()
+                    .filter(row -> row.requestTime().isAfter(requestTime)
+                            || row.requestTime().equals(requestTime) && row.bookingId() > bookingId)
+                    .sorted(Comparator.comparing(PendingBookingRow::requestTime))
+                    .toList();
+            if (!committed.contains(late)) {
+                committed.add(late);
+                assertTrue(bookingQueue.reserve(1L));
+                bookingQueue.add(late.toPendingBooking());
+            }
+            return page;
+        });
+
+        recovery.recover();
+
+        assertEquals(3, bookingQueue.depth(0));
+        assertEquals(pendingBooking(1L), bookingQueue.consume(0));
+        assertEquals(pendingBooking(2L), bookingQueue.consume(0));
+        // queued again by the catch-up scan, which settling ignores once it is no longer pending
+        assertEquals(pendingBooking(1L), bookingQueue.consume(0));
+        assertEquals(0, bookingQueue.depth(0));
+    }
+
+    private PendingBookingRow row(long bookingId, int minutes) {
+        return new PendingBookingRow(bookingId, 1L, START_TIME, START_TIME.plusHours(1), REQUEST_TIME.plusMinutes(minutes));
+    }
+
+    private PendingBooking pendingBooking(long bookingId) {
+        return new PendingBooking(bookingId, 1L, START_TIME, START_TIME.plusHours(1));
+    }
+}
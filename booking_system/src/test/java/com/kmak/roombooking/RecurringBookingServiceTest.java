@@ -0,0 +1,159 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.*;
+import com.kmak.roombooking.booking.model.Booking;
+import com.kmak.roombooking.booking.model.RecurringBooking;
+import com.kmak.roombooking.booking.model.RecurringBookingRequest;
+import com.kmak.roombooking.booking.model.RecurringBookingResponse;
+import com.kmak.roombooking.booking.model.RecurringOccurrence;
+import com.kmak.roombooking.booking.model.Room;
+import com.kmak.roombooking.booking.model.TimeSlot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class RecurringBookingServiceTest {
+
+    @Mock
+    private RecurringBookingRepository recurringBookingRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private ArchivedBookingRepository archivedBookingRepository;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private RoomRegistry roomRegistry;
+
+    @Mock
+    private AcceptedBookingIndex acceptedBookingIndex;
+
+    @Mock
+    private ClusterSettlement clusterSettlement;
+
+    private AutoCloseable close;
+    private final Room room = new Room();
+    private final LocalDateTime firstStart = LocalDateTime.of(2099, 11, 23, 9, 0);
+
+    @BeforeEach
+    public void before() {
+        close = MockitoAnnotations.openMocks(this);
+        room.setRoomId(1L);
+        when(roomRegistry.find(1L)).thenReturn(Optional.of(room));
+        when(bookingService.createBookings(anyList(), any())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            invocation.<Runnable>getArgument(1).run();
+            return LongStream.range(10, 10 + bookings.size()).boxed().toList();
+        });
+        when(recurringBookingRepository.save(any(RecurringBooking.class))).thenAnswer(invocation -> {
+            RecurringBooking recurringBooking = invocation.getArgument(0);
+            recurringBooking.setRecurringBookingId(7L);
+            return recurringBooking;
+        });
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        close.close();
+    }
+
+    // a horizon reaching until the given day of the first occurrence's week
+    private RecurringBookingService service(int daysAfterFirstStart, int maxOccurrences) {
+        long horizonDays = ChronoUnit.DAYS.between(LocalDate.now(), firstStart.toLocalDate()) + daysAfterFirstStart;
+        return new RecurringBookingService(recurringBookingRepository, bookingRepository, archivedBookingRepository, bookingService,
+                roomRegistry, acceptedBookingIndex, clusterSettlement, new SimpleMeterRegistry(), horizonDays, maxOccurrences);
+    }
+
+    @Test
+    void testCreateRecurringBooking_ChecksEveryOccurrenceAndBooksWithinHorizon() {
+        when(acceptedBookingIndex.busySlots(1L, firstStart, firstStart.plusWeeks(4).plusHours(1))).thenReturn(List.of(
+                new TimeSlot(firstStart.plusWeeks(1).minusMinutes(30), firstStart.plusWeeks(1).plusMinutes(30)),
+                new TimeSlot(firstStart.plusWeeks(3).minusHours(1), firstStart.plusWeeks(3))
+        ));
+        when(clusterSettlement.acceptedSlots(1L, firstStart, firstStart.plusWeeks(4).plusHours(1))).thenReturn(List.of(
+                new TimeSlot(firstStart.plusWeeks(4).plusMinutes(59), firstStart.plusWeeks(4).plusHours(2))
+        ));
+
+        RecurringBookingResponse response = service(15, 260).createRecurringBooking(
+                new RecurringBookingRequest(1L, firstStart, firstStart.plusHours(1), null, 5, null));
+
+        assertEquals(7L, response.recurringBookingId());
+        assertEquals(List.of(true, false, true, true, false), response.occurrences().stream().map(RecurringOccurrence::available).toList());
+        assertEquals(Long.valueOf(10), response.occurrences().get(0).bookingId());
+        assertEquals(Long.valueOf(12), response.occurrences().get(2).bookingId());
+        assertNull(response.occurrences().get(3).bookingId());
+        assertEquals(firstStart.plusWeeks(4), response.occurrences().get(4).startTime());
+
+        ArgumentCaptor<RecurringBooking> recurringBooking = ArgumentCaptor.forClass(RecurringBooking.class);
+        verify(recurringBookingRepository).save(recurringBooking.capture());
+        assertEquals(3, recurringBooking.getValue().getExpandedOccurrences());
+        assertFalse(recurringBooking.getValue().isComplete());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Booking>> bookings = ArgumentCaptor.forClass(List.class);
+        verify(bookingService).createBookings(bookings.capture(), any());
+        assertEquals(3, bookings.getValue().size());
+        assertTrue(bookings.getValue().stream().allMatch(booking -> booking.getRecurringBookingId() == 7L));
+    }
+
+    @Test
+    void testExpandRecurringBookings_BooksOccurrencesComingWithinHorizon() {
+        RecurringBooking recurringBooking = new RecurringBooking();
+        recurringBooking.setRecurringBookingId(7L);
+        recurringBooking.setRoom(room);
+        recurringBooking.setStartTime(firstStart);
+        recurringBooking.setEndTime(firstStart.plusHours(1));
+        recurringBooking.setIntervalWeeks(2);
+        recurringBooking.setUntilDate(firstStart.toLocalDate().plusWeeks(6));
+        recurringBooking.setExpandedOccurrences(1);
+        when(recurringBookingRepository.findByCompleteFalse()).thenReturn(List.of(recurringBooking));
+
+        service(30, 260).expandRecurringBookings();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Booking>> bookings = ArgumentCaptor.forClass(List.class);
+        verify(bookingService).createBookings(bookings.capture(), any());
+        assertEquals(List.of(firstStart.plusWeeks(2), firstStart.plusWeeks(4)),
+                bookings.getValue().stream().map(Booking::getStartTime).toList());
+        assertEquals(3, recurringBooking.getExpandedOccurrences());
+        assertFalse(recurringBooking.isComplete());
+
+        service(60, 260).expandRecurringBookings();
+
+        verify(bookingService, times(2)).createBookings(anyList(), any());
+        assertEquals(4, recurringBooking.getExpandedOccurrences());
+        assertTrue(recurringBooking.isComplete());
+    }
+
+    @Test
+    void testCreateRecurringBooking_Invalid() {
+        RecurringBookingService recurringBookingService = service(15, 52);
+
+        assertThrows(InvalidBookingException.class, () -> recurringBookingService.createRecurringBooking(
+                new RecurringBookingRequest(1L, firstStart, firstStart.plusHours(1), 1, null, null)));
+        assertThrows(InvalidBookingException.class, () -> recurringBookingService.createRecurringBooking(
+                new RecurringBookingRequest(1L, firstStart, firstStart.plusHours(1), 1, null, firstStart.toLocalDate().plusYears(2))));
+        verify(bookingService, never()).createBookings(anyList(), any());
+        verify(recurringBookingRepository, never()).save(any(RecurringBooking.class));
+    }
+}
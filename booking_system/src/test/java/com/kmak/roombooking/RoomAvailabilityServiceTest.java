@@ -0,0 +1,122 @@
+package com.kmak.roombooking;
+
+import com.kmak.roombooking.booking.AcceptedBookingIndex;
+import com.kmak.roombooking.booking.InvalidBookingException;
+import com.kmak.roombooking.booking.RoomAvailabilityService;
+import com.kmak.roombooking.booking.RoomRegistry;
+import com.kmak.roombooking.booking.model.FreeRoom;
+import com.kmak.roombooking.booking.model.Room;
+import com.kmak.roombooking.booking.model.RoomAvailability;
+import com.kmak.roombooking.booking.model.TimeSlot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class RoomAvailabilityServiceTest {
+
+    @Mock
+    private RoomRegistry roomRegistry;
+
+    @Mock
+    private AcceptedBookingIndex acceptedBookingIndex;
+
+    private RoomAvailabilityService roomAvailabilityService;
+
+    private AutoCloseable close;
+    private final LocalDateTime day = LocalDateTime.of(2099, 11, 25, 0, 0);
+
+    @BeforeEach
+    public void before() {
+        close = MockitoAnnotations.openMocks(this);
+        roomAvailabilityService = new RoomAvailabilityService(roomRegistry, acceptedBookingIndex, 31);
+    }
+
+    @AfterEach
+    public void after() throws Exception {
+        close.close();
+    }
+
+    @Test
+    void testGetAvailability_FreeSlotsBetweenAcceptedBookings() {
+        when(roomRegistry.find(1L)).thenReturn(Optional.of(new Room()));
+        when(acceptedBookingIndex.busySlots(1L, day.withHour(8), day.withHour(18))).thenReturn(List.of(
+                new TimeSlot(day.withHour(7), day.withHour(9)),
+                new TimeSlot(day.withHour(11), day.withHour(12)),
+                new TimeSlot(day.withHour(12), day.withHour(13)),
+                new TimeSlot(day.withHour(17), day.withHour(19))
+        ));
+
+        Optional<RoomAvailability> availability = roomAvailabilityService.getAvailability(1L, day.withHour(8), day.withHour(18));
+
+        assertTrue(availability.isPresent());
+        assertEquals(List.of(
+                new TimeSlot(day.withHour(9), day.withHour(11)),
+                new TimeSlot(day.withHour(13), day.withHour(17))
+        ), availability.get().freeSlots());
+    }
+
+    @Test
+    void testGetAvailability_RoomNotFound() {
+        when(roomRegistry.find(1L)).thenReturn(Optional.empty());
+
+        assertTrue(roomAvailabilityService.getAvailability(1L, day.withHour(8), day.withHour(18)).isEmpty());
+    }
+
+    @Test
+    void testGetAvailability_AllRooms() {
+        when(roomRegistry.roomIds()).thenReturn(List.of(2L, 1L));
+        when(roomRegistry.find(1L)).thenReturn(Optional.of(new Room()));
+        when(roomRegistry.find(2L)).thenReturn(Optional.of(new Room()));
+        when(acceptedBookingIndex.busySlots(2L, day.withHour(8), day.withHour(18))).thenReturn(List.of(
+                new TimeSlot(day.withHour(8), day.withHour(18))
+        ));
+
+        List<RoomAvailability> availability = roomAvailabilityService.getAvailability(List.of(), day.withHour(8), day.withHour(18));
+
+        assertEquals(List.of(
+                new RoomAvailability(1L, List.of(new TimeSlot(day.withHour(8), day.withHour(18)))),
+                new RoomAvailability(2L, List.of())
+        ), availability);
+    }
+
+    @Test
+    void testFindFreeRooms_SortedAndLimited() {
+        Room room1 = new Room();
+        room1.setRoomId(1L);
+        room1.setRoomName("Room 1");
+        Room room2 = new Room();
+        room2.setRoomId(2L);
+        room2.setRoomName("Room 2");
+        when(roomRegistry.roomIds()).thenReturn(List.of(3L, 2L, 1L));
+        when(roomRegistry.find(1L)).thenReturn(Optional.of(room1));
+        when(roomRegistry.find(2L)).thenReturn(Optional.of(room2));
+        when(acceptedBookingIndex.findFreeRooms(List.of(3L, 2L, 1L), day.withHour(14), day.withHour(15))).thenReturn(List.of(3L, 2L, 1L));
+
+        assertEquals(List.of(new FreeRoom(1L, "Room 1"), new FreeRoom(2L, "Room 2")),
+                roomAvailabilityService.findFreeRooms(day.withHour(14), day.withHour(15), 2));
+    }
+
+    @Test
+    void testGetAvailability_InvalidRange() {
+        assertThrows(InvalidBookingException.class, () -> roomAvailabilityService.getAvailability(1L, day.withHour(18), day.withHour(8)));
+    }
+
+    @Test
+    void testFindFreeRooms_RangeTooLong() {
+        assertThrows(InvalidBookingException.class, () -> roomAvailabilityService.findFreeRooms(day, day.plusYears(5), 10));
+    }
+
+    @Test
+    void testFindFreeRooms_InvalidLimit() {
+        assertThrows(InvalidBookingException.class, () -> roomAvailabilityService.findFreeRooms(day.withHour(14), day.withHour(15), 0));
+    }
+}